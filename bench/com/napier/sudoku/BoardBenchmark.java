@@ -0,0 +1,177 @@
+package com.napier.sudoku;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Micro-benchmarks for board generation, validation and serialization.
+ * All inputs are created from fixed seeds so that runs can be compared against each other.
+ * For every benchmark the average time per operation, the allocation per operation and the
+ * allocation rate (gc.alloc.rate) of the benchmark thread are reported.
+ * Usage: BoardBenchmark [name filter]
+ * Settings: -Dbench.warmup=5 -Dbench.iterations=5 -Dbench.time=1000 (milliseconds per iteration)
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class BoardBenchmark {
+    private static final long SEED = 20220429L;
+    private static final int INPUTS = 64;   // number of different boards the benchmarks cycle through
+
+    private static final int WARMUP = Integer.getInteger("bench.warmup", 5);
+    private static final int ITERATIONS = Integer.getInteger("bench.iterations", 5);
+    private static final long TIME = Long.getLong("bench.time", 1000);
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * A single operation to measure. The returned value is accumulated so that the JIT can't drop the work.
+     */
+    private interface Operation {
+        long run(int index);
+    }
+
+    private final List<String> names = new ArrayList<>();
+    private final List<Operation> operations = new ArrayList<>();
+
+    /**
+     * Driver code
+     */
+    public static void main(String[] args) {
+        String filter = args.length > 0 ? args[0] : "";
+        BoardBenchmark benchmark = new BoardBenchmark();
+        benchmark.setUp();
+        System.out.printf("%-28s %14s %14s %14s%n", "Benchmark", "ns/op", "B/op", "MB/s alloc");
+        for(int i = 0; i < benchmark.names.size(); i++) {
+            if(benchmark.names.get(i).contains(filter)) {
+                benchmark.measure(benchmark.names.get(i), benchmark.operations.get(i));
+            }
+        }
+    }
+
+    /**
+     * Creates the fixed-seed inputs and registers the benchmarks
+     */
+    private void setUp() {
+        Random rand = new Random(SEED);
+        Board[] boards = new Board[INPUTS];
+        String[] boardStrings = new String[INPUTS];
+        int[][] steps = new int[INPUTS][3];
+        for(int i = 0; i < INPUTS; i++) {
+            boards[i] = new Board(new Random(rand.nextLong()));
+            boards[i].generate(Difficulty.values()[i % Difficulty.values().length]);
+            boardStrings[i] = boards[i].boardToString();
+            steps[i][0] = rand.nextInt(9);
+            steps[i][1] = rand.nextInt(9);
+            steps[i][2] = rand.nextInt(1, 10);
+        }
+        Board generator = new Board(new Random(SEED));
+        Board reader = new Board(new Random(SEED));
+
+        add("generateSudoku", index -> {
+            // clears the board and fills it in with populateBoard
+            generator.generateSudoku();
+            return generator.completeBoard[index % 9][0];
+        });
+        add("generateHardBoard", index -> {
+            generator.generate(Difficulty.HARD);
+            return generator.emptyCells;
+        });
+        add("solveLogically", index -> boards[index % INPUTS].solveLogically().getFilledCells());
+        Board hinted = new Board(new Random(SEED));
+        hinted.generate(Difficulty.HARD);
+        add("HintEngine.next", index -> {
+            // fill in hinted cells, starting over once the board is full
+            int cell = hinted.getHints().next();
+            if(cell == -1) {
+                hinted.startOver();
+                return 0;
+            }
+            hinted.insertValue(cell / 9 + 1, cell % 9 + 1, hinted.getCorrectValue(cell / 9, cell % 9));
+            return cell;
+        });
+        add("isStepPossible", index -> {
+            // random cells and values of generated boards, so some steps are possible and most aren't
+            Board board = boards[index % INPUTS];
+            int[] step = steps[index % INPUTS];
+            return board.isStepPossible(step[0], step[1], step[2]) ? 1 : 0;
+        });
+        add("isSolved", index -> boards[index % INPUTS].isSolved() ? 1 : 0);
+        add("countNumbersInBoard", index -> boards[index % INPUTS].countNumbersInBoard()[index % 9]);
+        add("getEmptyCells", index -> boards[index % INPUTS].getEmptyCells().length);
+        add("boardToString", index -> boards[index % INPUTS].boardToString().length());
+        add("originalToString", index -> boards[index % INPUTS].originalToString().length());
+        add("initialToString", index -> boards[index % INPUTS].initialToString().length());
+        char[] text = new char[BoardCodec.maxSpacedLength(9)];
+        add("BoardCodec.encodeSpaced", index -> BoardCodec.encodeSpaced(boards[index % INPUTS].board, text, 0));
+        add("BoardCodec.encodeCompact", index -> BoardCodec.encodeCompact(boards[index % INPUTS].board, text, 0));
+        add("BoardCodec.decodeSpaced", index -> BoardCodec.decodeSpaced(boardStrings[index % INPUTS], 0, reader.board));
+        add("readInBoard", index -> {
+            reader.readInBoard(boardStrings[index % INPUTS], 3);
+            return reader.board[index % 9][0];
+        });
+    }
+
+    /**
+     * Registers a benchmark
+     * @param name  name shown in the results
+     * @param operation operation to measure
+     */
+    private void add(String name, Operation operation) {
+        names.add(name);
+        operations.add(operation);
+    }
+
+    /**
+     * Runs warmup and measurement iterations of a benchmark and prints the averages
+     * @param name  name of the benchmark
+     * @param operation operation to measure
+     */
+    private void measure(String name, Operation operation) {
+        long threadId = Thread.currentThread().getId();
+        long sink = 0;
+        for(int i = 0; i < WARMUP; i++) {
+            sink += runFor(operation, TIME)[1];
+        }
+        long operationsRun = 0;
+        long nanos = 0;
+        long allocated = 0;
+        for(int i = 0; i < ITERATIONS; i++) {
+            long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            long[] result = runFor(operation, TIME);
+            nanos += System.nanoTime() - start;
+            allocated += THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            operationsRun += result[0];
+            sink += result[1];
+        }
+        double nanosPerOperation = (double) nanos / operationsRun;
+        double bytesPerOperation = (double) allocated / operationsRun;
+        double allocationRate = allocated / (nanos / 1e9) / (1024 * 1024);
+        System.out.printf("%-28s %14.1f %14.1f %14.1f%n", name, nanosPerOperation, bytesPerOperation, allocationRate);
+        if(sink == 42) {
+            System.out.println();
+        }
+    }
+
+    /**
+     * Repeats an operation for a given time
+     * @param operation operation to repeat
+     * @param millis    time to run for
+     * @return  number of operations run and the accumulated results
+     */
+    private static long[] runFor(Operation operation, long millis) {
+        long end = System.nanoTime() + millis * 1_000_000;
+        long count = 0;
+        long sink = 0;
+        // check the clock only every 64 operations to keep the overhead low
+        do {
+            for(int i = 0; i < 64; i++) {
+                sink += operation.run((int) count++);
+            }
+        } while(System.nanoTime() < end);
+        return new long[]{count, sink};
+    }
+}
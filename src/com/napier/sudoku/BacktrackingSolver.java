@@ -0,0 +1,92 @@
+package com.napier.sudoku;
+
+/**
+ * Recursive backtracking solver using the bitmask candidate engine
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+class BacktrackingSolver implements Solver {
+    private final CandidateGrid candidates;
+    private final CandidateGrid.Layout layout;
+    private int[][] grid;
+    private int limit;
+    private int solutionsFound;
+    private boolean keepSolution;
+
+    /**
+     * Constructor
+     * @param boxSize   size of a box of the boards to solve
+     */
+    BacktrackingSolver(int boxSize) {
+        this.candidates = new CandidateGrid(boxSize);
+        this.layout = candidates.layout;
+    }
+
+    @Override
+    public boolean solve(int[][] grid) {
+        keepSolution = true;
+        return run(grid, 1) == 1;
+    }
+
+    @Override
+    public int countSolutions(int[][] grid, int limit) {
+        keepSolution = false;
+        return run(grid, limit);
+    }
+
+    /**
+     * Prepares the candidates and runs the search
+     * @param grid  board to search
+     * @param limit number of solutions to stop at
+     * @return  number of solutions found
+     */
+    private int run(int[][] grid, int limit) {
+        this.grid = grid;
+        this.limit = limit;
+        this.solutionsFound = 0;
+        // load the givens, checking that they don't already break the rules
+        candidates.clear();
+        for(int cell = 0; cell < layout.cells; cell++) {
+            int value = grid[layout.rowOf[cell]][layout.columnOf[cell]];
+            if(value != 0) {
+                if(!candidates.isSafe(cell, value)) {
+                    return 0;
+                }
+                candidates.place(cell, value);
+            }
+        }
+        search();
+        this.grid = null;
+        return solutionsFound;
+    }
+
+    /**
+     * Backtracking search over the cell with the fewest possible values
+     */
+    private void search() {
+        int cell = candidates.selectCell(grid);
+        if(cell == -1) {
+            solutionsFound++;
+            return;
+        }
+        int row = layout.rowOf[cell];
+        int column = layout.columnOf[cell];
+        int mask = candidates.candidates(cell);
+        while(mask != 0) {
+            int value = Integer.numberOfTrailingZeros(mask) + 1;
+            mask &= mask - 1;
+            grid[row][column] = value;
+            candidates.place(cell, value);
+            search();
+            if(solutionsFound >= limit) {
+                // leave the solution in the grid if asked to
+                if(!keepSolution) {
+                    grid[row][column] = 0;
+                }
+                return;
+            }
+            grid[row][column] = 0;
+            candidates.remove(cell, value);
+        }
+    }
+}
@@ -3,59 +3,95 @@ package com.napier.sudoku;
 import java.util.*;
 
 /**
- * Class representing a sudoku board
+ * Class representing a sudoku board. Boards are 9x9 by default, but any box size from 2 to 5
+ * (4x4 up to 25x25) can be used.
  * @author 40495101
- * Last modified: 29/04/2022
+ * Last modified: 17/10/2026
  */
 public class Board {
+    private static final int MAX_DIG_ATTEMPTS = 5;   // digs of the same full board before generating a new one
+    private static final long LARGE_DIG_STEPS = Long.getLong("sudoku.digSteps", 1000);   // search steps per uniqueness check above 9x9
+    private static final long DIG_STEPS_GROWTH = 4;    // growth of the search steps every time put-off checks are retried
+    private static final long MAX_DIG_STEPS = 16 * LARGE_DIG_STEPS;   // most search steps a put-off check is retried with
+    private static final int REFILL_BACKTRACKS = 1000;    // most backtracks per try to fill an emptied band in again
+    private static final int REFILL_ATTEMPTS = 5;   // tries to fill an emptied band in before putting it back
+    private static final int AMBIGUOUS = -1;    // dig result - the board no longer has one solution
+    private static final int UNDECIDED = -2;    // dig result - the search ran out of steps
+    private static final int TOO_HARD = -3;     // dig result - the board needs a technique harder than allowed
+    private static final int MAX_GRADE_ATTEMPTS = 40;   // digs to try until one is graded at the requested difficulty
+    private static final int LARGE_GRADE_ATTEMPTS = 3;  // the same above 9x9, where each dig takes much longer
+
     int[][] board; // 2D array to store the board to play
     int[][] completeBoard; // original board to compare against
     int[][] initialBoard; // board with empty cells at the start of the game
-    String[][] possibleValues; // 2D array to store all possible values for each cell
+    CandidateGrid candidates; // values still possible in each row, column and box
+    int[][] valueOrder; // buffers for shuffled values, one per recursion depth
+    int[] digOrder; // buffer for the shuffled order of cell pairs to dig
+    Random rand;
+    Solver[] solvers; // solving engines, created when first used
+    DifficultyGrader grader;    // technique-based grader, created when first used
+    int score;  // grader score of the puzzle, -1 until graded
+    boolean liveValidation; // if true, every insertValue checks the value for repeats and mismatches
+    Conflicts conflicts;    // result of the last insertValue
+    HintEngine hints;   // next logical step for clues, created when first used and kept up to date by insertValue
     int columns;
     int rows;
+    int boxSize;
     int emptyCells;
+    boolean uniqueSolution; // if true, cells are only removed while the board has one solution
+    int emptyCount; // empty cells in the playing board, kept up to date by insertValue
+    int mismatchCount;  // filled cells that don't match the complete board, kept up to date by insertValue
+    DigitHistogram digitCounts; // counts of each value in the playing board, kept up to date by insertValue
+    char[] textBuffer;  // reused when converting boards to text
+    int maxDepth;   // deepest recursion of the last generateSudoku
+    int backtracks; // values taken back by the last generateSudoku
+    private int backtrackLimit;    // backtracks after which populateBoard gives up
 
     /**
      * Constructor
      */
     public Board() {
-        this.columns = 9;
-        this.rows = 9;
+        this(new Random());
+    }
+
+    /**
+     * Constructor
+     * @param rand  random number generator used when generating boards
+     */
+    public Board(Random rand) {
+        this(CandidateGrid.DEFAULT_BOX_SIZE, rand);
+    }
+
+    /**
+     * Constructor
+     * @param boxSize   size of a box (2-5), the board has boxSize * boxSize rows and columns
+     * @param rand  random number generator used when generating boards
+     */
+    public Board(int boxSize, Random rand) {
+        this.candidates = new CandidateGrid(boxSize);
+        this.boxSize = boxSize;
+        this.columns = boxSize * boxSize;
+        this.rows = boxSize * boxSize;
         this.board = new int[rows][columns];
         this.completeBoard = new int[rows][columns];
         this.initialBoard = new int[rows][columns];
-        this.possibleValues = new String[rows][columns];
+        this.valueOrder = new int[rows * columns][rows];
+        this.rand = rand;
+        this.uniqueSolution = true;
+        this.solvers = new Solver[SolverEngine.values().length];
+        this.digitCounts = new DigitHistogram(boxSize);
+        this.textBuffer = new char[BoardCodec.maxSpacedLength(rows)];
+        this.score = -1;
+        this.conflicts = new Conflicts();
+        recount();
     }
 
     /**
-     * Prints the entire sudoku board to the console
+     * Switches between unique-solution generation and the quicker purely random removal of cells
+     * @param uniqueSolution    true to guarantee that generated boards have exactly one solution
      */
-    public void printBoard() {
-        int rowsCounter = 1;
-        // print columns numbering
-        String columnNumbering = "       1 2 3   4 5 6   7 8 9 \n\n";
-        System.out.print(columnNumbering);
-
-        // print the grid
-        for (int i = 0; i < rows; i++) {
-            if (i % 3 == 0 && i != 0) {
-                System.out.print("\n");
-            }
-            System.out.print(rowsCounter++ + "    ");  // print row number
-
-            for (int j = 0; j < columns; j++) {
-                if (j % 3 == 0) {
-                    System.out.print("| ");
-                }
-                if (board[i][j] == 0) {
-                    System.out.print("_ ");
-                } else {
-                    System.out.print(board[i][j] + " ");
-                }
-            }
-            System.out.print("|\n");
-        }
+    public void setUniqueSolution(boolean uniqueSolution) {
+        this.uniqueSolution = uniqueSolution;
     }
 
     /**
@@ -64,12 +100,8 @@ public class Board {
     public void generateEasyBoard() {
         System.out.println("Preparing an easy board...");
         try {
-            // generate a number of empty cells between 40-45
-            Random rand = new Random();
-            int empty = rand.nextInt(40, 46);  // upper is exclusive, lower inclusive
-            this.emptyCells = empty;
-            generateSudoku();
-            determineEmptyCells(empty);
+            // 40-45 empty cells on a 9x9 board, scaled to the board size
+            generate(Difficulty.EASY);
         } catch (Exception ex) {
             System.out.println("Something went wrong. Please try again.");
         }
@@ -81,12 +113,8 @@ public class Board {
     public void generateMediumBoard() {
         try {
             System.out.println("Preparing a medium board...");
-            // generate a number of empty cells between 46-49
-            Random rand = new Random();
-            int empty = rand.nextInt(46, 50);  // upper is exclusive, lower inclusive
-            this.emptyCells = empty;
-            generateSudoku();
-            determineEmptyCells(empty);
+            // 46-49 empty cells on a 9x9 board, scaled to the board size
+            generate(Difficulty.MEDIUM);
         } catch (Exception ex) {
             System.out.println("Something went wrong. Please try again.");
         }
@@ -98,348 +126,828 @@ public class Board {
     public void generateHardBoard() {
         try {
             System.out.println("Preparing a hard board...");
-            // generate a number of empty cells between 50-53
-            Random rand = new Random();
-            int empty = rand.nextInt(50, 54);  // upper is exclusive, lower inclusive
-            this.emptyCells = empty;
-            generateSudoku();
-            determineEmptyCells(empty);
+            // 50-53 empty cells on a 9x9 board, scaled to the board size
+            generate(Difficulty.HARD);
         } catch (Exception ex) {
             System.out.println("Something went wrong. Please try again.");
         }
     }
 
+    /**
+     * Generates a ready-to-play board of the given difficulty without printing anything.
+     * Holes are dug into a full board while grading it, so that the board ends up needing the techniques of the
+     * level. If a dig doesn't get there, the same full board is dug again in another order, and a new full board
+     * is only generated every MAX_DIG_ATTEMPTS digs. If no dig fits within the attempts allowed, the closest board
+     * with a number of holes in the level's range is kept.
+     * @param difficulty    level of difficulty, available in the size of this board (see Difficulty.isAvailable)
+     */
+    public void generate(Difficulty difficulty) {
+        if(!difficulty.isAvailable(boxSize)) {
+            throw new IllegalArgumentException("No " + difficulty.getName() + " boards of box size " + boxSize);
+        }
+        int attempts = boxSize > CandidateGrid.DEFAULT_BOX_SIZE ? LARGE_GRADE_ATTEMPTS : MAX_GRADE_ATTEMPTS;
+        int minEmpty = difficulty.getMinEmpty(rows);
+        int maxEmpty = difficulty.getMaxEmpty(rows);
+        int[][] bestComplete = null;
+        int[][] bestInitial = null;
+        int bestDistance = Integer.MAX_VALUE;
+        int bestScore = 0;
+        int bestEmpty = 0;
+        for(int attempt = 0; attempt < attempts; attempt++) {
+            if(attempt % MAX_DIG_ATTEMPTS == 0) {
+                generateSudoku();
+            }
+            else {
+                Metrics.DIG_RETRIES.increment();
+                copy(completeBoard, board);
+                copy(completeBoard, initialBoard);
+            }
+            // upper is exclusive, lower inclusive
+            removeCells(difficulty, rand.nextInt(minEmpty, maxEmpty));
+            int distance = difficulty.scoreDistance(score);
+            // a board with the wrong number of holes is only kept if no board has the right number
+            if(emptyCells < minEmpty || emptyCells >= maxEmpty) {
+                distance += DifficultyGrader.MAX_SCORE + 1;
+            }
+            if(distance == 0) {
+                recount();
+                return;
+            }
+            if(distance < bestDistance) {
+                // keep the closest board so far in case no board fits
+                if(bestComplete == null) {
+                    bestComplete = new int[rows][columns];
+                    bestInitial = new int[rows][columns];
+                }
+                copy(completeBoard, bestComplete);
+                copy(initialBoard, bestInitial);
+                bestDistance = distance;
+                bestScore = score;
+                bestEmpty = emptyCells;
+            }
+        }
+        copy(bestComplete, completeBoard);
+        copy(bestInitial, initialBoard);
+        copy(bestInitial, board);
+        this.score = bestScore;
+        this.emptyCells = bestEmpty;
+        recount();
+    }
+
+    /**
+     * Copies the values of one board into another of the same size
+     * @param from  board to copy
+     * @param to    board to overwrite
+     */
+    private static void copy(int[][] from, int[][] to) {
+        for(int i = 0; i < from.length; i++) {
+            System.arraycopy(from[i], 0, to[i], 0, from[i].length);
+        }
+    }
+
+    /**
+     * Returns the grader score of the puzzle, grading it the first time it's needed
+     * @return  score given by DifficultyGrader
+     */
+    public int getScore() {
+        if(score < 0) {
+            score = getGrader().grade(initialBoard);
+        }
+        return score;
+    }
+
+    /**
+     * Releases the solvers, the grader and the generation buffers, which a board being played doesn't need.
+     * They are created again if the board is used to generate or grade another puzzle.
+     */
+    public void releaseGenerator() {
+        Arrays.fill(solvers, null);
+        grader = null;
+        valueOrder = null;
+        digOrder = null;
+    }
+
+    /**
+     * Returns the hint engine, creating it the first time it's needed
+     * @return  hint engine kept up to date with the playing board
+     */
+    public HintEngine getHints() {
+        if(hints == null) {
+            hints = new HintEngine(this, rand);
+        }
+        return hints;
+    }
+
+    /**
+     * Returns the grader, creating it the first time it's needed
+     * @return  grader reused by this board
+     */
+    private DifficultyGrader getGrader() {
+        if(grader == null) {
+            grader = new DifficultyGrader(boxSize);
+        }
+        return grader;
+    }
+
     /**
      * Generates a complete sudoku board
      */
-    private void generateSudoku() {
-        // initialise all possible values to be all possible
+    void generateSudoku() {
+        long start = System.nanoTime();
+        maxDepth = 0;
+        backtracks = 0;
+        backtrackLimit = Integer.MAX_VALUE;
+        // start from an empty board with every value possible in every cell
         for (int r = 0; r < rows; r++) {
             for (int c = 0; c < columns; c++) {
-                possibleValues[r][c] = "123456789";
+                board[r][c] = 0;
             }
         }
+        candidates.clear();
+        if(valueOrder == null) {
+            valueOrder = new int[rows * columns][rows];
+        }
         // populate the cells by using backtracking algorithm to solve the board
+        // large boards are built by shuffling a valid pattern instead, backtracking would take far too long
         try {
-            populateBoard();
+            if(boxSize > CandidateGrid.DEFAULT_BOX_SIZE ? permuteBaseGrid() : populateBoard(0)) {
+                for (int r = 0; r < rows; r++) {
+                    for (int c = 0; c < columns; c++) {
+                        completeBoard[r][c] = board[r][c];
+                        initialBoard[r][c] = board[r][c];
+                    }
+                }
+            }
         } catch (Exception ex) {
             // print an error message if something goes wrong
             System.out.println("There was an error trying to generate a new sudoku board. Please try again");
         }
+        Metrics.GENERATE_TIME.record(System.nanoTime() - start);
+        Metrics.GENERATE_DEPTH.record(maxDepth);
+        Metrics.GENERATE_BACKTRACKS.record(backtracks);
     }
 
     /**
      * Backtracking method for populating the whole board
+     * @param depth number of cells filled so far, used to pick the buffer for shuffled values
+     * @return  true if the board has been filled in completely
      */
-    private boolean populateBoard() {
-        String cellLeft = cellsLeftToFill();
-        // first, check if there are any cells left to fill
-        if(cellLeft.isEmpty()) {
+    private boolean populateBoard(int depth) {
+        maxDepth = Math.max(maxDepth, depth);
+        if(backtracks >= backtrackLimit) {
+            return false;
+        }
+        // first, pick the empty cell with the fewest possible values
+        int cell = candidates.selectCell(board);
+        if(cell == -1) {
             return true;
         }
-        // else, start with the found cell and fill the rest
-        else {
-            // get the cell values
-            int row = Character.getNumericValue(cellLeft.charAt(0));
-            int column = Character.getNumericValue(cellLeft.charAt(1));
-            // randomise the possible values
-            String values = randomizeValues(possibleValues[row][column]);
-            String[] splitValues = values.split("");
-            for (String value : splitValues) {
-                // check if it is safe to place the value there
-                if(isStepPossible(row, column, Integer.parseInt(value))) {
-                    // if safe, assign the value to the cell
-                    board[row][column] = Integer.parseInt(value);
-                    completeBoard[row][column] = Integer.parseInt(value);
-                    initialBoard[row][column] = Integer.parseInt(value);
-                    if(populateBoard()) {
-                        return true;
-                    }
-                    else {
-                        // else, empty the cell
-                        board[row][column] = 0;
-                        completeBoard[row][column] = 0;
-                        initialBoard[row][column] = 0;
-                        // remove the possible value for this cell
-                        if(possibleValues[row][column].contains(value)) {
-                            possibleValues[row][column].replace(value, "");
-                        }
-                    }
-                }
+        int row = candidates.layout.rowOf[cell];
+        int column = candidates.layout.columnOf[cell];
+        // randomise the possible values
+        int[] values = valueOrder[depth];
+        int count = randomizeValues(candidates.candidates(cell), values);
+        for (int i = 0; i < count; i++) {
+            int value = values[i];
+            // assign the value to the cell - only possible values are tried, so it is always safe
+            board[row][column] = value;
+            candidates.place(cell, value);
+            if(populateBoard(depth + 1)) {
+                return true;
             }
-            return false;
+            // else, empty the cell
+            board[row][column] = 0;
+            candidates.remove(cell, value);
+            backtracks++;
         }
+        return false;
     }
 
     /**
-     * Returns the coordinates of the first cell left to fill or empty string if no empty cells left
-     * @return  String with row and column coordinates or an empty string if no empty cells found
+     * Fills the board with a shuffled copy of a pattern that is always valid: row r, column c holds
+     * (boxSize * (r % boxSize) + r / boxSize + c) % size + 1. Swapping rows within a band, whole bands,
+     * columns within a stack, whole stacks, relabelling the values and transposing all keep the board valid.
+     * Shuffling alone only gives boards of the pattern's family, where the values in a row of a box are those of
+     * a row of every other box in the band (or the same for columns once transposed). So every band and then
+     * every stack is emptied and filled in again by backtracking, which takes the board out of the family.
+     * @return  always true
      */
-    private String cellsLeftToFill() {
-        String coordinates = "";
-        int row;
-        int column;
-        // look for at least one empty cell
-        for(int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                // check if the cell is empty
-                if(board[i][j] == 0) {
-                    row = i;
-                    column = j;
-                    coordinates += row;
-                    coordinates += column;
-                    return coordinates;
+    private boolean permuteBaseGrid() {
+        int[] rowOrder = valueOrder[0];
+        int[] columnOrder = valueOrder[1];
+        int[] values = valueOrder[2];
+        shuffleLines(rowOrder);
+        shuffleLines(columnOrder);
+        for(int i = 0; i < rows; i++) {
+            values[i] = i + 1;
+        }
+        shuffle(values, rows);
+        boolean transpose = rand.nextBoolean();
+        for(int r = 0; r < rows; r++) {
+            for(int c = 0; c < columns; c++) {
+                int value = values[(boxSize * (r % boxSize) + r / boxSize + c) % rows];
+                if(transpose) {
+                    board[columnOrder[c]][rowOrder[r]] = value;
+                }
+                else {
+                    board[rowOrder[r]][columnOrder[c]] = value;
                 }
             }
         }
-        return coordinates;
+        for(int band = 0; band < boxSize; band++) {
+            refill(band, false);
+        }
+        for(int stack = 0; stack < boxSize; stack++) {
+            refill(stack, true);
+        }
+        candidates.load(board);
+        return true;
     }
 
     /**
-     * Determines if all conditions are met for the step to be possible
-     * @param row   row to check
-     * @param column    column to check
-     * @param value     value to check
-     * @return  if step possible
+     * Empties a band (or a stack) of a full board and fills it in again by backtracking. If none of
+     * REFILL_ATTEMPTS tries manages within REFILL_BACKTRACKS, the band is put back as it was.
+     * @param index band or stack number (from 0)
+     * @param stack true for a stack of columns, false for a band of rows
      */
-    private boolean isStepPossible(int row, int column, int value) {
-        if(isRowSafe(row, value)
-                && isColumnSafe(column, value)
-                && isSubGridSafe(row, column, value)) {
-            return true;
+    private void refill(int index, boolean stack) {
+        // completeBoard is only set once the board is complete, so it can hold the band meanwhile
+        copy(board, completeBoard);
+        for(int line = index * boxSize; line < (index + 1) * boxSize; line++) {
+            for(int i = 0; i < rows; i++) {
+                if(stack) {
+                    board[i][line] = 0;
+                }
+                else {
+                    board[line][i] = 0;
+                }
+            }
         }
-        else
-            return false;
+        // values are tried in another random order every time
+        boolean filled = false;
+        for(int attempt = 0; attempt < REFILL_ATTEMPTS && !filled; attempt++) {
+            candidates.load(board);
+            backtrackLimit = backtracks + REFILL_BACKTRACKS;
+            filled = populateBoard(0);
+        }
+        if(!filled) {
+            copy(completeBoard, board);
+        }
+        backtrackLimit = Integer.MAX_VALUE;
     }
 
     /**
-     * Checks if the value is already somewhere else in the row
-     * @param row   row to check
-     * @param value value to check
-     * @return  true if safe to place the value in the row
+     * Creates a random order of rows (or columns) that keeps every band of boxes together
+     * @param order array to write the order to
      */
-    private boolean isRowSafe(int row, int value) {
-        // iterate through the row
-        for(int c = 0; c < 9; c++) {
-            // check if the value is already in the row
-            if(board[row][c] == value) {
-                return false;
+    private void shuffleLines(int[] order) {
+        int[] bands = valueOrder[3];
+        for(int i = 0; i < boxSize; i++) {
+            bands[i] = i;
+        }
+        shuffle(bands, boxSize);
+        for(int band = 0; band < boxSize; band++) {
+            int start = band * boxSize;
+            for(int i = 0; i < boxSize; i++) {
+                order[start + i] = bands[band] * boxSize + i;
+            }
+            // shuffle the lines within the band
+            for(int i = boxSize - 1; i > 0; i--) {
+                int j = rand.nextInt(i + 1);
+                int temp = order[start + i];
+                order[start + i] = order[start + j];
+                order[start + j] = temp;
             }
         }
-        return true;
     }
 
     /**
-     * Checks if the value is already somewhere else in the column
-     * @param column   column to check
-     * @param value value to check
-     * @return  true if safe to place the value in the column
+     * Fisher-Yates shuffle of the start of an array
+     * @param values    array to shuffle
+     * @param count number of values to shuffle
      */
-    private boolean isColumnSafe(int column, int value) {
-        // iterate through the row
-        for(int r = 0; r < 9; r++) {
-            // check if the value is already in the column
-            if(board[r][column] == value) {
-                return false;
-            }
+    private void shuffle(int[] values, int count) {
+        for(int i = count - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int temp = values[i];
+            values[i] = values[j];
+            values[j] = temp;
         }
-        return true;
     }
 
     /**
-     * Checks if the value is already somewhere else in the subgrid
-     * @param column   column of the cell to check
-     * @param row       row of the cell to check
-     * @param value value to check
-     * @return  true if safe to place the value in the subgrid
+     * Completes the playing board with the selected solving engine
+     * @param engine    engine to solve with
+     * @return  true if the board could be completed, otherwise it is left unchanged
+     */
+    public boolean solve(SolverEngine engine) {
+        boolean solved = getSolver(engine).solve(board);
+        recount();
+        return solved;
+    }
+
+    /**
+     * Counts the solutions of the playing board with the selected solving engine
+     * @param engine    engine to count with
+     * @param limit     number of solutions to stop counting at
+     * @return  number of solutions found, at most limit
      */
-    private boolean isSubGridSafe(int row, int column, int value) {
-        // calculate the coordinates of the box
-        // sqrt - square root
-        int squareOfBoard = (int)Math.sqrt(board.length); // in this case, it's always 3
-        int boxStartRow = row - row % squareOfBoard;
-        int boxStartColumn = column - column % squareOfBoard;
+    public int countSolutions(SolverEngine engine, int limit) {
+        return getSolver(engine).countSolutions(board, limit);
+    }
 
-        // iterate through the box and check if it contains
-        for(int r = boxStartRow; r < boxStartRow + squareOfBoard; r++) {
-            for (int c = boxStartColumn; c < boxStartColumn + squareOfBoard; c++) {
-                if(board[r][c] == value) {
-                    return false;
-                }
-            }
+    /**
+     * Solves the puzzle at the start of the game with logical techniques only, without guessing.
+     * The techniques needed can be read from the returned solver.
+     * @return  solver reused by this board, holding the result of the solve
+     */
+    public LogicalSolver solveLogically() {
+        LogicalSolver solver = getGrader().getSolver();
+        solver.solve(initialBoard);
+        return solver;
+    }
+
+    /**
+     * Returns the solver for an engine, creating it the first time it's needed
+     * @param engine    engine requested
+     * @return  solver reused by this board
+     */
+    private Solver getSolver(SolverEngine engine) {
+        int index = engine.ordinal();
+        if(solvers[index] == null) {
+            solvers[index] = engine.create(boxSize);
         }
-        return true;
+        return solvers[index];
+    }
+
+    /**
+     * Determines if all conditions are met for the step to be possible, i.e. the value isn't in the row, column
+     * or box of the cell in the playing board yet. Looks the value up in digitCounts, which follows the
+     * playing board, rather than in the candidates, which are only up to date while a board is generated.
+     * @param row   row to check
+     * @param column    column to check
+     * @param value     value to check
+     * @return  if step possible
+     */
+    boolean isStepPossible(int row, int column, int value) {
+        return !digitCounts.rowContains(row, value)
+                && !digitCounts.columnContains(column, value)
+                && !digitCounts.boxContains(digitCounts.boxOf(row, column), value);
     }
 
     /**
      * Shuffles possible values for a cell
-     * @param possibleValues    String containing the values
-     * @return  a String with shuffled values
+     * @param mask  bitmask of possible values (bit 0 for 1, bit 8 for 9 and so on)
+     * @param values    array to write the shuffled values to
+     * @return  number of values written
      */
-    private String randomizeValues(String possibleValues) {
-        List<String> splitValues = Arrays.asList(possibleValues.split(""));
-        Collections.shuffle(splitValues, new Random());
-        String shuffledValues = "";
-        for (String value : splitValues) {
-            shuffledValues += value;
+    private int randomizeValues(int mask, int[] values) {
+        int count = 0;
+        while(mask != 0) {
+            values[count++] = Integer.numberOfTrailingZeros(mask) + 1;
+            mask &= mask - 1;
         }
-        return shuffledValues;
+        shuffle(values, count);
+        return count;
     }
 
     /**
-     * Generates a given number of empty cell coordinates and erases them from the board
+     * Erases cells from a full board and grades the result, leaving the score in score.
+     * Boards with one solution are dug towards the techniques of the level, otherwise random cells are erased.
+     * @param difficulty    level of difficulty
      * @param emptyNumber   number of cells to empty
      */
-    private void determineEmptyCells(int emptyNumber) {
-        String[] emptyCells = new String[emptyNumber];
-        Random rand = new Random();
-        // determine half of the cells in the upper half of the board so that later it can be symmetrical
-        for(int i = 0; i < (emptyNumber / 2); i++) {
-            boolean isDuplicate = true;
-            boolean duplicateFound = false;
-            while(isDuplicate) {
-                int row = rand.nextInt(0, 4);
-                int column = rand.nextInt(0, 8);
-                while(row == 4 && column > 4) {
-                    row = rand.nextInt(0, 4);
-                    column = rand.nextInt(0, 8);
-                }
+    private void removeCells(Difficulty difficulty, int emptyNumber) {
+        if(!uniqueSolution) {
+            this.emptyCells = determineEmptyCells(emptyNumber);
+            this.score = getGrader().grade(initialBoard);
+            return;
+        }
+        this.emptyCells = digUniqueEmptyCells(difficulty, emptyNumber);
+    }
 
-                String rowColumn = String.valueOf(row);
-                rowColumn += String.valueOf(column);
+    /**
+     * Removes symmetrical pairs of cells in random order while the board keeps exactly one solution, grading it
+     * on the way. Pairs that would make the board harder than the level are put back, and they are only dug
+     * again if the board would otherwise have too few holes. Hard boards are dug past the requested number of
+     * holes until they need the techniques of the level or reach the level's maximum. On large boards, pairs whose
+     * check runs out of search steps are put off too, and checked again with more steps if holes are missing.
+     * The score is left in score.
+     * @param difficulty    level of difficulty
+     * @param emptyNumber   number of cells to empty
+     * @return  number of cells actually emptied, always below the level's maximum
+     */
+    private int digUniqueEmptyCells(Difficulty difficulty, int emptyNumber) {
+        int cells = rows * columns;
+        int pairs = (cells + 1) / 2;    // the middle cell is its own reflection
+        if(digOrder == null) {
+            digOrder = new int[pairs];
+        }
+        int[] order = digOrder;
+        for(int i = 0; i < pairs; i++) {
+            order[i] = i;
+        }
+        for(int i = pairs - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int temp = order[i];
+            order[i] = order[j];
+            order[j] = temp;
+        }
 
-                for(String cell : emptyCells) {
-                    if(cell != null) {
-                        if(cell == rowColumn) {
-                            duplicateFound = true;
-                        }
-                    }
+        int minEmpty = difficulty.getMinEmpty(rows);
+        int maxEmpty = difficulty.getMaxEmpty(rows);
+        // levels with a highest score are graded all along, so that pairs making them too hard can be put back
+        boolean capped = difficulty.getMaxScore() <= DifficultyGrader.MAX_SCORE;
+        Technique hardest = capped ? difficulty.getHardestTechnique() : null;
+        // checks that take too long on large boards are put off rather than slowing every pair down
+        long maxSteps = boxSize > CandidateGrid.DEFAULT_BOX_SIZE ? LARGE_DIG_STEPS : Long.MAX_VALUE;
+        int removed = 0;
+        int deferred = 0;   // pairs put back for being too hard or undecided, kept at the front of the order
+        boolean graded = true;  // false while the score is out of date
+        score = 0;
+        for(int i = 0; i < pairs; i++) {
+            int cell = order[i];
+            int holes = cell == cells - 1 - cell ? 1 : 2;
+            // never dig as many holes as the level's maximum
+            if(removed + holes >= maxEmpty) {
+                continue;
+            }
+            boolean grade = capped || removed + holes >= minEmpty;
+            int result = digPair(cell, grade, hardest, maxSteps);
+            if(result == AMBIGUOUS) {
+                continue;
+            }
+            if(result == UNDECIDED || result == TOO_HARD || result >= difficulty.getMaxScore()) {
+                // digPair has put back the pairs it couldn't dig already, only graded ones are still dug
+                if(result >= 0) {
+                    restorePair(cell);
                 }
-
-                if(!duplicateFound) {
-                    isDuplicate = false;
-                    // save the cell
-                    emptyCells[i] = String.valueOf(row);
-                    emptyCells[i] += String.valueOf(column);
-                    board[row][column] = 0;
-                    initialBoard[row][column] = 0;
-                    // reflect the cell to the bottom half of the board
-                    emptyCells[(emptyNumber - 1 - i)] = String.valueOf(8-row) + String.valueOf(8-column);
-                    board[8-row][8-column] = 0;
-                    initialBoard[8-row][8-column] = 0;
+                order[deferred++] = cell;
+                continue;
+            }
+            removed += holes;
+            score = result;
+            graded = grade;
+            if(graded && removed >= emptyNumber && difficulty.scoreDistance(score) == 0) {
+                return removed;
+            }
+        }
+        // too few holes is worse than a board a little too hard, or than slower checks
+        while(deferred > 0 && removed < minEmpty) {
+            if(maxSteps != Long.MAX_VALUE) {
+                if(maxSteps >= MAX_DIG_STEPS) {
+                    break;
+                }
+                maxSteps *= DIG_STEPS_GROWTH;
+            }
+            int undecided = 0;
+            for(int i = 0; i < deferred; i++) {
+                int cell = order[i];
+                int holes = cell == cells - 1 - cell ? 1 : 2;
+                if(removed >= minEmpty || removed + holes >= maxEmpty) {
+                    continue;
+                }
+                int result = digPair(cell, true, null, maxSteps);
+                if(result == UNDECIDED) {
+                    // try again with a bigger budget
+                    order[undecided++] = cell;
+                }
+                else if(result != AMBIGUOUS) {
+                    removed += holes;
+                    score = result;
+                    graded = true;
                 }
             }
+            deferred = undecided;
         }
+        if(!graded) {
+            score = getGrader().grade(initialBoard);
+        }
+        return removed;
     }
 
     /**
-     * Checks if the board is solved by looking for empty cells
-     * @return  if solved
+     * Empties a cell and its mirror image if the board still has exactly one solution afterwards
+     * @param cell  cell index (row * columns + column)
+     * @param grade true to grade the board as well
+     * @param hardest   hardest technique the board may need, null for any
+     * @param maxSteps  search steps allowed to count the solutions
+     * @return  grader score (0 if not graded), AMBIGUOUS if the board no longer has one solution, TOO_HARD if it
+     *          needs a technique harder than allowed or UNDECIDED if the search ran out of steps - the cells are
+     *          filled in again then
      */
-    public boolean isSolved() {
-        boolean solved = true;
-        for(int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board.length; j++) {
-                if(board[i][j] == 0) {
-                    solved = false;
-                }
+    private int digPair(int cell, boolean grade, Technique hardest, long maxSteps) {
+        int mirror = rows * columns - 1 - cell;
+        board[cell / columns][cell % columns] = 0;
+        board[mirror / columns][mirror % columns] = 0;
+        int result = 0;
+        int solutions;
+        if(hardest != null && !getGrader().getSolver().solve(board, hardest)) {
+            // no need to grade or count solutions, the board is too hard either way
+            restorePair(cell);
+            return TOO_HARD;
+        }
+        if(grade) {
+            result = getGrader().grade(board);
+            solutions = getGrader().getSolutions();
+        }
+        else {
+            // a board singles alone can finish has one solution
+            solutions = getGrader().getSolver().solve(board, Technique.HIDDEN_SINGLE) ? 1 : -1;
+        }
+        if(solutions == -1) {
+            // stop counting at 2 - any second solution makes the board ambiguous
+            DancingLinks dancingLinks = (DancingLinks) getSolver(SolverEngine.DANCING_LINKS);
+            solutions = dancingLinks.countSolutions(board, 2, maxSteps);
+            if(dancingLinks.getStepsLeft() < 0) {
+                restorePair(cell);
+                return UNDECIDED;
             }
         }
-        if(solved) {
-            solved = checkCompleteBoard();
+        if(solutions != 1) {
+            restorePair(cell);
+            return AMBIGUOUS;
         }
-        return solved;
+        initialBoard[cell / columns][cell % columns] = 0;
+        initialBoard[mirror / columns][mirror % columns] = 0;
+        return result;
+    }
+
+    /**
+     * Fills a cell and its mirror image in again in both the playing and the initial board, counting the pair
+     * as an empty cell retry
+     * @param cell  cell index (row * columns + column)
+     */
+    private void restorePair(int cell) {
+        Metrics.EMPTY_CELL_RETRIES.increment();
+        int mirror = rows * columns - 1 - cell;
+        board[cell / columns][cell % columns] = completeBoard[cell / columns][cell % columns];
+        board[mirror / columns][mirror % columns] = completeBoard[mirror / columns][mirror % columns];
+        initialBoard[cell / columns][cell % columns] = completeBoard[cell / columns][cell % columns];
+        initialBoard[mirror / columns][mirror % columns] = completeBoard[mirror / columns][mirror % columns];
+    }
+
+    /**
+     * Erases a given number of random cells from the board, symmetrically around the centre
+     * @param emptyNumber   number of cells to empty
+     * @return  number of cells actually emptied
+     */
+    private int determineEmptyCells(int emptyNumber) {
+        int cells = rows * columns;
+        int removed = 0;
+        int retries = 0;
+        while(removed + 2 <= emptyNumber) {
+            // pick a cell in the upper half of the board, so that it can be reflected to the bottom half
+            int cell = rand.nextInt(0, cells / 2);
+            int mirror = cells - 1 - cell;
+            if(initialBoard[cell / columns][cell % columns] != 0) {
+                clearCell(cell);
+                clearCell(mirror);
+                removed += 2;
+            }
+            else {
+                retries++;
+            }
+        }
+        Metrics.EMPTY_CELL_RETRIES.add(retries);
+        // an odd number of cells needs the middle cell, which only boards with an odd number of cells have
+        if(removed < emptyNumber && cells % 2 == 1) {
+            clearCell(cells / 2);
+            removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * Empties a cell in both the playing and the initial board
+     * @param cell  cell index (row * columns + column)
+     */
+    private void clearCell(int cell) {
+        board[cell / columns][cell % columns] = 0;
+        initialBoard[cell / columns][cell % columns] = 0;
+    }
+
+    /**
+     * Checks if the board is solved using the counts kept up to date by insertValue
+     * @return  if solved
+     */
+    public boolean isSolved() {
+        Metrics.SOLVED_CHECKS.increment();
+        if(emptyCount != 0) {
+            return false;
+        }
+        return checkCompleteBoard();
+    }
+
+    /**
+     * Switches checking every inserted value for repeats in its row, column and box and for mismatches
+     * against the solution
+     * @param liveValidation    true to check values as they are inserted
+     */
+    public void setLiveValidation(boolean liveValidation) {
+        this.liveValidation = liveValidation;
+    }
+
+    public boolean isLiveValidation() {
+        return liveValidation;
     }
 
     /**
-     * Inserts a value into the cell with coordinates provided
-     * @param row   row (1-9)
-     * @param column    column (1-9)
+     * Inserts a value into the cell with coordinates provided. What was found wrong with the value
+     * can be read from getConflicts() afterwards.
+     * @param row   row (from 1)
+     * @param column    column (from 1)
      * @param value     value to enter
      * @return  value initially in the cell if successful, otherwise -1
      */
     public int insertValue(int row, int column, int value) {
         // check if the cell is not a given
         if(initialBoard[row - 1][column - 1] != 0) {
-            System.out.println("Cannot modify a given cell");
+            conflicts.set(row, column, value, Conflicts.GIVEN);
             return -1;
         }
         // else, insert it into the board
         else {
             int initialValue = board[row - 1][column - 1];
+            int correctValue = completeBoard[row - 1][column - 1];
+            // take the old value out of the counts and add the new one
+            if(initialValue == 0) {
+                emptyCount--;
+            }
+            else if(initialValue != correctValue) {
+                mismatchCount--;
+            }
+            if(value == 0) {
+                emptyCount++;
+            }
+            else if(value != correctValue) {
+                mismatchCount++;
+            }
+            if(initialValue != 0) {
+                digitCounts.remove(row - 1, column - 1, initialValue);
+            }
+            if(value != 0) {
+                digitCounts.add(row - 1, column - 1, value);
+            }
             board[row - 1][column - 1] = value;
+            if(hints != null) {
+                hints.update(row - 1, column - 1, initialValue, value);
+            }
+            checkValue(row, column, value);
             return initialValue;
         }
     }
 
+    /**
+     * Records what is wrong with a value just inserted, using the counts kept up to date by insertValue
+     * @param row   row (from 1)
+     * @param column    column (from 1)
+     * @param value value inserted
+     */
+    private void checkValue(int row, int column, int value) {
+        int flags = 0;
+        if(liveValidation && value != 0) {
+            // the value itself is counted, so another cell has it too if the count is above 1
+            if(digitCounts.rowCount(row - 1, value) > 1) {
+                flags |= Conflicts.ROW;
+            }
+            if(digitCounts.columnCount(column - 1, value) > 1) {
+                flags |= Conflicts.COLUMN;
+            }
+            if(digitCounts.boxCount(digitCounts.boxOf(row - 1, column - 1), value) > 1) {
+                flags |= Conflicts.BOX;
+            }
+            if(value != completeBoard[row - 1][column - 1]) {
+                flags |= Conflicts.MISMATCH;
+            }
+        }
+        conflicts.set(row, column, value, flags);
+    }
+
+    /**
+     * Returns what was found wrong with the value of the last insertValue
+     * @return  result reused by this board, overwritten by the next insertValue
+     */
+    public Conflicts getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Checks if any row, column or box of the playing board has a value twice
+     * @return  true if there are repeated values
+     */
+    public boolean hasRepeats() {
+        return digitCounts.repeats() != 0;
+    }
+
+    /**
+     * Returns the number of filled cells that don't match the complete board
+     * @return  number of wrong values
+     */
+    public int getMismatchCount() {
+        return mismatchCount;
+    }
+
     /**
      * Compares the board against the complete board and determines if they're the same
      * @return  if the boards are the same
      */
     public boolean checkCompleteBoard() {
-        for(int i = 0; i < board.length; i++) {
-            for(int j = 0; j < board.length; j++) {
-                if(board[i][j] != completeBoard[i][j]) {
-                    System.out.println("You have some errors in your board.");
-                    return false;
+        return emptyCount == 0 && mismatchCount == 0;
+    }
+
+    /**
+     * Recounts the empty cells, the cells that don't match the complete board and each value in the board.
+     * Needed whenever the boards are changed without insertValue. Hints start again from the new board.
+     */
+    void recount() {
+        if(hints != null) {
+            hints.invalidate();
+        }
+        digitCounts.load(board);
+        emptyCount = 0;
+        mismatchCount = 0;
+        for(int i = 0; i < rows; i++) {
+            for(int j = 0; j < columns; j++) {
+                if(board[i][j] == 0) {
+                    emptyCount++;
+                }
+                else if(board[i][j] != completeBoard[i][j]) {
+                    mismatchCount++;
                 }
             }
         }
-        System.out.println("Congratulations! You completed the board.");
-        return true;
+    }
+
+    /**
+     * Returns the number of rows (and columns) of the board
+     * @return  9 for a 9x9 board
+     */
+    public int getSize() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of rows (and columns) of a box
+     * @return  3 for a 9x9 board
+     */
+    public int getBoxSize() {
+        return boxSize;
     }
 
     public int[][] getInitialBoard() {
         return initialBoard;
     }
 
+    /**
+     * Returns the playing board. The array is owned by the board, so it should only be read.
+     * @return  playing board
+     */
+    public int[][] getBoard() {
+        return board;
+    }
+
     /**
      * Counts how many of each value there are currently in the board
      * @return  int array with the value counts
      */
     public int[] countNumbersInBoard() {
-        int oneCount = 0;
-        int twoCount = 0;
-        int threeCount = 0;
-        int fourCount = 0;
-        int fiveCount = 0;
-        int sixCount = 0;
-        int sevenCount = 0;
-        int eightCount = 0;
-        int nineCount = 0;
-        // count the numbers
-        for(int i = 0; i < board.length; i++) {
-            for(int j = 0; j < board.length; j++) {
-                switch (board[i][j]) {
-                    case 1 -> oneCount++;
-                    case 2 -> twoCount++;
-                    case 3 -> threeCount++;
-                    case 4 -> fourCount++;
-                    case 5 -> fiveCount++;
-                    case 6 -> sixCount++;
-                    case 7 -> sevenCount++;
-                    case 8 -> eightCount++;
-                    case 9 -> nineCount++;
-                    default -> {
-                    }
-                }
-            }
+        int[] counts = new int[rows];
+        for(int value = 1; value <= rows; value++) {
+            counts[value - 1] = digitCounts.count(value);
         }
-        return new int[]{oneCount, twoCount, threeCount, fourCount, fiveCount, sixCount, sevenCount, eightCount, nineCount};
+        return counts;
+    }
+
+    /**
+     * Returns the counts of each value in the board, per board, row, column and box.
+     * The counts are updated as the board changes, so the same object can be kept and read again.
+     * @return  read-only value counts
+     */
+    public DigitHistogram getDigitCounts() {
+        return digitCounts;
+    }
+
+    /**
+     * Counts the cells of the playing board that have a value
+     * @return  number of filled cells
+     */
+    public int countFilledCells() {
+        return rows * columns - emptyCount;
     }
 
     /**
-     * Returns a list of empty cell coordinates at the point when the method is called
+     * Returns a list of empty cell coordinates at the point when the method is called.
+     * Each coordinate is the row and the column index (from 0) as one character each, 0-9 and then A-Z.
      * @return  String array of coordinates
      */
     public String[] getEmptyCells() {
-        // at maximum, the board can have 53 empty cells
-        String[] cells = new String[53];
+        String[] cells = new String[emptyCount];
         int cellCounter = 0;
         for(int i = 0; i < board.length; i++) {
             for(int j = 0; j < board.length; j++) {
                 if(board[i][j] == 0) {
-                    String coordinates = String.valueOf(i) + String.valueOf(j);
+                    String coordinates = String.valueOf(BoardCodec.toChar(i)) + BoardCodec.toChar(j);
                     cells[cellCounter] = coordinates;
                     cellCounter++;
                 }
@@ -449,7 +957,7 @@ public class Board {
     }
 
     /**
-     * Gets the correct value for the cell specified (coordinates as stored in the array - 0-8)
+     * Gets the correct value for the cell specified (coordinates as stored in the array, from 0)
      * @param row   row of the cell
      * @param column    column of the cell
      * @return  correct value for the cell at the given coordinates
@@ -467,6 +975,7 @@ public class Board {
                 board[i][j] = initialBoard[i][j];
             }
         }
+        recount();
     }
 
     /**
@@ -474,14 +983,8 @@ public class Board {
      * @return  String representation of the completeBoard array
      */
     public String originalToString() {
-        String board = "";
-        for(int i = 0; i < rows; i++) {
-            for(int j = 0; j < columns; j++) {
-                board += completeBoard[i][j];
-                board += " ";
-            }
-        }
-        return board;
+        int length = BoardCodec.encodeSpaced(completeBoard, textBuffer, 0);
+        return new String(textBuffer, 0, length);
     }
 
     /**
@@ -489,14 +992,8 @@ public class Board {
      * @return  String representation of the initialBoard array
      */
     public String initialToString() {
-        String board = "";
-        for(int i = 0; i < rows; i++) {
-            for(int j = 0; j < columns; j++) {
-                board += initialBoard[i][j];
-                board += " ";
-            }
-        }
-        return board;
+        int length = BoardCodec.encodeSpaced(initialBoard, textBuffer, 0);
+        return new String(textBuffer, 0, length);
     }
 
     /**
@@ -504,14 +1001,8 @@ public class Board {
      * @return  String representation of the board array
      */
     public String boardToString() {
-        String string = "";
-        for(int i = 0; i < rows; i++) {
-            for(int j = 0; j < columns; j++) {
-                string += board[i][j];
-                string += " ";
-            }
-        }
-        return string;
+        int length = BoardCodec.encodeSpaced(board, textBuffer, 0);
+        return new String(textBuffer, 0, length);
     }
 
     /**
@@ -527,16 +1018,43 @@ public class Board {
         }
         else if(boardCode == 2) {
             readIn = initialBoard;
+            score = -1;
         }
         else {
             readIn = board;
         }
-        String[] split = array.split(" ");
-        int iterator = 0;
+        BoardCodec.decodeSpaced(array, 0, readIn);
+        recount();
+    }
+
+    /**
+     * Converts the complete and initial boards to a compact String of digits, 0 for empty cells
+     * @return  the complete board followed by the initial board, one character per cell
+     */
+    public String puzzleToString() {
+        int length = BoardCodec.encodeCompact(completeBoard, textBuffer, 0);
+        length += BoardCodec.encodeCompact(initialBoard, textBuffer, length);
+        return new String(textBuffer, 0, length);
+    }
+
+    /**
+     * Reads in a puzzle created by puzzleToString() and sets the playing board to the initial board
+     * @param puzzle    compact String representation of the complete and initial boards,
+     *                  optionally followed by a space and the grader score
+     */
+    public void readInPuzzle(String puzzle) {
+        int length = BoardCodec.decodeCompact(puzzle, 0, completeBoard);
+        length += BoardCodec.decodeCompact(puzzle, length, initialBoard);
+        score = length < puzzle.length() ? Integer.parseInt(puzzle, length + 1, puzzle.length(), 10) : -1;
+        emptyCells = 0;
         for(int i = 0; i < rows; i++) {
             for(int j = 0; j < columns; j++) {
-                readIn[i][j] = Integer.parseInt(split[iterator++]);
+                board[i][j] = initialBoard[i][j];
+                if(initialBoard[i][j] == 0) {
+                    emptyCells++;
+                }
             }
         }
+        recount();
     }
  }
@@ -0,0 +1,307 @@
+package com.napier.sudoku;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts boards to and from text without building intermediate Strings.
+ * Two formats are supported:
+ *   spaced - every value followed by a space ("5 3 0 ... "), the format used in text saves,
+ *   compact - one character per cell, 0-9 and then A-Z for values above 9.
+ * Encoders write into a buffer supplied by the caller and return the number of characters written.
+ * Decoders read directly from the input and throw NumberFormatException on malformed input.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public final class BoardCodec {
+    private static final int MAX_DIGITS = 2;    // values go up to 25
+
+    private BoardCodec() {
+    }
+
+    /**
+     * Returns the longest the spaced format of a board can get
+     * @param size  number of rows of the board
+     * @return  maximum number of characters
+     */
+    public static int maxSpacedLength(int size) {
+        return size * size * (MAX_DIGITS + 1);
+    }
+
+    /**
+     * Writes a board in the spaced format
+     * @param grid  board to write
+     * @param out   buffer to write to
+     * @param offset    position in the buffer to start at
+     * @return  number of characters written
+     */
+    public static int encodeSpaced(int[][] grid, char[] out, int offset) {
+        int position = offset;
+        for(int[] row : grid) {
+            for(int value : row) {
+                if(value >= 10) {
+                    out[position++] = (char) ('0' + value / 10);
+                }
+                out[position++] = (char) ('0' + value % 10);
+                out[position++] = ' ';
+            }
+        }
+        return position - offset;
+    }
+
+    /**
+     * Writes a board in the spaced format as ASCII bytes
+     * @param grid  board to write
+     * @param out   buffer to write to
+     * @param offset    position in the buffer to start at
+     * @return  number of bytes written
+     */
+    public static int encodeSpaced(int[][] grid, byte[] out, int offset) {
+        int position = offset;
+        for(int[] row : grid) {
+            for(int value : row) {
+                if(value >= 10) {
+                    out[position++] = (byte) ('0' + value / 10);
+                }
+                out[position++] = (byte) ('0' + value % 10);
+                out[position++] = ' ';
+            }
+        }
+        return position - offset;
+    }
+
+    /**
+     * Writes a board in the spaced format as ASCII bytes at the position of the buffer
+     * @param grid  board to write
+     * @param out   buffer to write to
+     * @return  number of bytes written
+     */
+    public static int encodeSpaced(int[][] grid, ByteBuffer out) {
+        int start = out.position();
+        for(int[] row : grid) {
+            for(int value : row) {
+                if(value >= 10) {
+                    out.put((byte) ('0' + value / 10));
+                }
+                out.put((byte) ('0' + value % 10));
+                out.put((byte) ' ');
+            }
+        }
+        return out.position() - start;
+    }
+
+    /**
+     * Writes a board in the compact format
+     * @param grid  board to write
+     * @param out   buffer to write to
+     * @param offset    position in the buffer to start at
+     * @return  number of characters written
+     */
+    public static int encodeCompact(int[][] grid, char[] out, int offset) {
+        int position = offset;
+        for(int[] row : grid) {
+            for(int value : row) {
+                out[position++] = toChar(value);
+            }
+        }
+        return position - offset;
+    }
+
+    /**
+     * Writes a board in the compact format as ASCII bytes
+     * @param grid  board to write
+     * @param out   buffer to write to
+     * @param offset    position in the buffer to start at
+     * @return  number of bytes written
+     */
+    public static int encodeCompact(int[][] grid, byte[] out, int offset) {
+        int position = offset;
+        for(int[] row : grid) {
+            for(int value : row) {
+                out[position++] = (byte) toChar(value);
+            }
+        }
+        return position - offset;
+    }
+
+    /**
+     * Writes a board in the compact format as ASCII bytes at the position of the buffer
+     * @param grid  board to write
+     * @param out   buffer to write to
+     * @return  number of bytes written
+     */
+    public static int encodeCompact(int[][] grid, ByteBuffer out) {
+        int start = out.position();
+        for(int[] row : grid) {
+            for(int value : row) {
+                out.put((byte) toChar(value));
+            }
+        }
+        return out.position() - start;
+    }
+
+    /**
+     * Reads a board in the spaced format
+     * @param in    text to read
+     * @param offset    position in the text to start at
+     * @param grid  board to fill in
+     * @return  number of characters read
+     */
+    public static int decodeSpaced(CharSequence in, int offset, int[][] grid) {
+        int position = offset;
+        int length = in.length();
+        for(int[] row : grid) {
+            for(int j = 0; j < row.length; j++) {
+                // skip the spaces before the value
+                while(position < length && in.charAt(position) == ' ') {
+                    position++;
+                }
+                int value = 0;
+                int digits = 0;
+                while(position < length && in.charAt(position) != ' ') {
+                    char c = in.charAt(position++);
+                    if(c < '0' || c > '9' || ++digits > MAX_DIGITS) {
+                        throw new NumberFormatException("Invalid board value at " + (position - 1));
+                    }
+                    value = value * 10 + (c - '0');
+                }
+                if(digits == 0) {
+                    throw new NumberFormatException("Board too short");
+                }
+                row[j] = value;
+            }
+        }
+        // the last value is followed by a space
+        if(position < length && in.charAt(position) == ' ') {
+            position++;
+        }
+        return position - offset;
+    }
+
+    /**
+     * Reads a board in the spaced format from ASCII bytes
+     * @param in    buffer to read from, starting at its position
+     * @param grid  board to fill in
+     * @return  number of bytes read
+     */
+    public static int decodeSpaced(ByteBuffer in, int[][] grid) {
+        int start = in.position();
+        for(int[] row : grid) {
+            for(int j = 0; j < row.length; j++) {
+                while(in.hasRemaining() && in.get(in.position()) == ' ') {
+                    in.get();
+                }
+                int value = 0;
+                int digits = 0;
+                while(in.hasRemaining() && in.get(in.position()) != ' ') {
+                    byte c = in.get();
+                    if(c < '0' || c > '9' || ++digits > MAX_DIGITS) {
+                        throw new NumberFormatException("Invalid board value at " + (in.position() - 1));
+                    }
+                    value = value * 10 + (c - '0');
+                }
+                if(digits == 0) {
+                    throw new NumberFormatException("Board too short");
+                }
+                row[j] = value;
+            }
+        }
+        if(in.hasRemaining() && in.get(in.position()) == ' ') {
+            in.get();
+        }
+        return in.position() - start;
+    }
+
+    /**
+     * Reads a board in the compact format
+     * @param in    text to read
+     * @param offset    position in the text to start at
+     * @param grid  board to fill in
+     * @return  number of characters read
+     */
+    public static int decodeCompact(CharSequence in, int offset, int[][] grid) {
+        int position = offset;
+        for(int[] row : grid) {
+            for(int j = 0; j < row.length; j++) {
+                if(position >= in.length()) {
+                    throw new NumberFormatException("Board too short");
+                }
+                row[j] = fromChar(in.charAt(position++), grid.length);
+            }
+        }
+        return position - offset;
+    }
+
+    /**
+     * Reads a board in the compact format from ASCII bytes
+     * @param in    bytes to read
+     * @param offset    position in the array to start at
+     * @param grid  board to fill in
+     * @return  number of bytes read
+     */
+    public static int decodeCompact(byte[] in, int offset, int[][] grid) {
+        int position = offset;
+        for(int[] row : grid) {
+            for(int j = 0; j < row.length; j++) {
+                if(position >= in.length) {
+                    throw new NumberFormatException("Board too short");
+                }
+                row[j] = fromChar((char) in[position++], grid.length);
+            }
+        }
+        return position - offset;
+    }
+
+    /**
+     * Reads a board in the compact format from ASCII bytes at the position of the buffer
+     * @param in    buffer to read from
+     * @param grid  board to fill in
+     * @return  number of bytes read
+     */
+    public static int decodeCompact(ByteBuffer in, int[][] grid) {
+        int start = in.position();
+        for(int[] row : grid) {
+            for(int j = 0; j < row.length; j++) {
+                if(!in.hasRemaining()) {
+                    throw new NumberFormatException("Board too short");
+                }
+                row[j] = fromChar((char) in.get(), grid.length);
+            }
+        }
+        return in.position() - start;
+    }
+
+    /**
+     * Converts a value to its compact character
+     * @param value value (0-35)
+     * @return  character for the value
+     */
+    static char toChar(int value) {
+        return (char) (value < 10 ? '0' + value : 'A' + value - 10);
+    }
+
+    /**
+     * Converts a compact character back to its value
+     * @param c character
+     * @param size  largest value allowed
+     * @return  value
+     */
+    static int fromChar(char c, int size) {
+        int value;
+        if(c >= '0' && c <= '9') {
+            value = c - '0';
+        }
+        else if(c >= 'A' && c <= 'Z') {
+            value = c - 'A' + 10;
+        }
+        else if(c == '.') {
+            value = 0;
+        }
+        else {
+            throw new NumberFormatException("Invalid board character '" + c + "'");
+        }
+        if(value > size) {
+            throw new NumberFormatException("Board value too large: " + value);
+        }
+        return value;
+    }
+}
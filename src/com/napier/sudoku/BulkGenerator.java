@@ -0,0 +1,142 @@
+package com.napier.sudoku;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Headless entry point generating large numbers of puzzles in parallel.
+ * Every difficulty available in the box size is written to its own file in the output directory (easy.txt,
+ * medium.txt, hard.txt), one puzzle per line with one character per cell (0 for empty cells, A-P for values
+ * above 9), followed by a space and the grader score of the puzzle.
+ * Usage: BulkGenerator puzzlesPerDifficulty outputDirectory [threads] [boxSize]
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class BulkGenerator {
+    private static final int BATCH_SIZE = 256;  // puzzles generated by one task before writing them out
+
+    /**
+     * Driver code
+     */
+    public static void main(String[] args) {
+        if(args.length < 2) {
+            System.out.println("Usage: BulkGenerator puzzlesPerDifficulty outputDirectory [threads] [boxSize]");
+            return;
+        }
+        long count;
+        int threads;
+        int boxSize;
+        try {
+            count = Long.parseLong(args[0]);
+            threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            boxSize = args.length > 3 ? Integer.parseInt(args[3]) : CandidateGrid.DEFAULT_BOX_SIZE;
+        }
+        catch (NumberFormatException ex) {
+            System.out.println("The number of puzzles, threads and the box size must be whole numbers");
+            return;
+        }
+        if(boxSize < CandidateGrid.MIN_BOX_SIZE || boxSize > CandidateGrid.MAX_BOX_SIZE) {
+            System.out.println("The box size must be between " + CandidateGrid.MIN_BOX_SIZE + " and "
+                    + CandidateGrid.MAX_BOX_SIZE);
+            return;
+        }
+        Path directory = Paths.get(args[1]);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Files.createDirectories(directory);
+            for(Difficulty difficulty : Difficulty.values()) {
+                if(!difficulty.isAvailable(boxSize)) {
+                    System.out.println(difficulty.getName() + ": no boards of this size, skipped");
+                    continue;
+                }
+                long start = System.nanoTime();
+                generate(pool, difficulty, boxSize, count, directory.resolve(difficulty.getName() + ".txt"));
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                System.out.println(difficulty.getName() + ": " + count + " puzzles in " + millis + " ms");
+            }
+        }
+        catch (IOException | UncheckedIOException ex) {
+            System.out.println("Could not write the puzzles: " + ex.getMessage());
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Generates puzzles of one difficulty and streams them to a file
+     * @param pool  pool to run the generation on
+     * @param difficulty    level of difficulty
+     * @param boxSize   size of a box of the boards
+     * @param count number of puzzles to generate
+     * @param file  file to write the puzzles to
+     */
+    static void generate(ForkJoinPool pool, Difficulty difficulty, int boxSize, long count, Path file)
+            throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+            pool.invoke(new GenerateTask(difficulty, boxSize, count, writer));
+        }
+    }
+
+    /**
+     * Task splitting the requested number of puzzles until a batch is small enough to generate directly
+     */
+    @SuppressWarnings("serial") // tasks are never serialized
+    private static class GenerateTask extends RecursiveAction {
+        private final Difficulty difficulty;
+        private final int boxSize;
+        private final long count;
+        private final Writer writer;
+
+        GenerateTask(Difficulty difficulty, int boxSize, long count, Writer writer) {
+            this.difficulty = difficulty;
+            this.boxSize = boxSize;
+            this.count = count;
+            this.writer = writer;
+        }
+
+        @Override
+        protected void compute() {
+            if(count > BATCH_SIZE) {
+                long half = count / 2;
+                invokeAll(new GenerateTask(difficulty, boxSize, half, writer),
+                        new GenerateTask(difficulty, boxSize, count - half, writer));
+                return;
+            }
+            // each worker thread uses its own random generator
+            Board board = new Board(boxSize, ThreadLocalRandom.current());
+            // every cell, a space, up to 3 digits of the score and a line break
+            char[] lines = new char[(int) count * (board.getSize() * board.getSize() + 5)];
+            int position = 0;
+            for(long i = 0; i < count; i++) {
+                board.generate(difficulty);
+                position += BoardCodec.encodeCompact(board.getInitialBoard(), lines, position);
+                lines[position++] = ' ';
+                int score = board.getScore();
+                if(score >= 100) {
+                    lines[position++] = (char) ('0' + score / 100);
+                }
+                if(score >= 10) {
+                    lines[position++] = (char) ('0' + score / 10 % 10);
+                }
+                lines[position++] = (char) ('0' + score % 10);
+                lines[position++] = '\n';
+            }
+            // write the whole batch at once so lines from different tasks never interleave
+            try {
+                synchronized (writer) {
+                    writer.write(lines, 0, position);
+                }
+            }
+            catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
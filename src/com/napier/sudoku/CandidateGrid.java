@@ -0,0 +1,204 @@
+package com.napier.sudoku;
+
+/**
+ * Class tracking which values are still possible in each row, column and box of a sudoku board.
+ * Every unit keeps a bitmask where bit (value - 1) is set once the value is used in that unit.
+ * Boards with box sizes 2 to 5 (4x4 up to 25x25) are supported.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+class CandidateGrid {
+    static final int MIN_BOX_SIZE = 2;
+    static final int MAX_BOX_SIZE = 5;
+    static final int DEFAULT_BOX_SIZE = 3;
+
+    // tables for every supported box size, built once and shared by all grids of that size
+    private static final Layout[] LAYOUTS = new Layout[MAX_BOX_SIZE + 1];
+
+    static {
+        for(int boxSize = MIN_BOX_SIZE; boxSize <= MAX_BOX_SIZE; boxSize++) {
+            LAYOUTS[boxSize] = new Layout(boxSize);
+        }
+    }
+
+    /**
+     * Precomputed tables for one board size, indexed by cell (row * size + column)
+     */
+    static final class Layout {
+        final int boxSize;
+        final int size;
+        final int cells;
+        final int allValues;    // bits for values 1 to size
+        final int[] rowOf;
+        final int[] columnOf;
+        final int[] boxOf;
+        final int[][] peers;    // cells sharing a row, column or box with each cell
+        final int[][] units;    // cells of every row, then every column, then every box (row by row)
+
+        private Layout(int boxSize) {
+            this.boxSize = boxSize;
+            this.size = boxSize * boxSize;
+            this.cells = size * size;
+            this.allValues = (1 << size) - 1;
+            this.rowOf = new int[cells];
+            this.columnOf = new int[cells];
+            this.boxOf = new int[cells];
+            for(int cell = 0; cell < cells; cell++) {
+                rowOf[cell] = cell / size;
+                columnOf[cell] = cell % size;
+                boxOf[cell] = (rowOf[cell] / boxSize) * boxSize + columnOf[cell] / boxSize;
+            }
+            this.units = new int[3 * size][size];
+            for(int cell = 0; cell < cells; cell++) {
+                int box = boxOf[cell];
+                int inBox = (rowOf[cell] % boxSize) * boxSize + columnOf[cell] % boxSize;
+                units[rowOf[cell]][columnOf[cell]] = cell;
+                units[size + columnOf[cell]][rowOf[cell]] = cell;
+                units[2 * size + box][inBox] = cell;
+            }
+            // 20 peers in a 9x9 board
+            int peerCount = 3 * (size - 1) - 2 * (boxSize - 1);
+            this.peers = new int[cells][peerCount];
+            for(int cell = 0; cell < cells; cell++) {
+                int peerCounter = 0;
+                for(int other = 0; other < cells; other++) {
+                    if(other != cell
+                            && (rowOf[other] == rowOf[cell]
+                            || columnOf[other] == columnOf[cell]
+                            || boxOf[other] == boxOf[cell])) {
+                        peers[cell][peerCounter++] = other;
+                    }
+                }
+            }
+        }
+    }
+
+    final Layout layout;
+    private final int[] rowMasks;
+    private final int[] columnMasks;
+    private final int[] boxMasks;
+
+    /**
+     * Constructor for a 9x9 board
+     */
+    CandidateGrid() {
+        this(DEFAULT_BOX_SIZE);
+    }
+
+    /**
+     * Constructor
+     * @param boxSize   size of a box (2-5)
+     */
+    CandidateGrid(int boxSize) {
+        this.layout = layout(boxSize);
+        this.rowMasks = new int[layout.size];
+        this.columnMasks = new int[layout.size];
+        this.boxMasks = new int[layout.size];
+    }
+
+    /**
+     * Returns the tables for a box size
+     * @param boxSize   size of a box (2-5)
+     * @return  shared tables
+     */
+    static Layout layout(int boxSize) {
+        if(boxSize < MIN_BOX_SIZE || boxSize > MAX_BOX_SIZE) {
+            throw new IllegalArgumentException("Box size must be between " + MIN_BOX_SIZE + " and " + MAX_BOX_SIZE);
+        }
+        return LAYOUTS[boxSize];
+    }
+
+    /**
+     * Marks every value as possible in every unit
+     */
+    void clear() {
+        for(int i = 0; i < layout.size; i++) {
+            rowMasks[i] = 0;
+            columnMasks[i] = 0;
+            boxMasks[i] = 0;
+        }
+    }
+
+    /**
+     * Rebuilds the masks from the values in a board
+     * @param grid  board to read the values from (0 for empty)
+     */
+    void load(int[][] grid) {
+        clear();
+        for(int r = 0; r < layout.size; r++) {
+            for(int c = 0; c < layout.size; c++) {
+                if(grid[r][c] != 0) {
+                    place(r * layout.size + c, grid[r][c]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the value can be placed in the cell without repeating it in the row, column or box
+     * @param cell  cell index (row * size + column)
+     * @param value value to check (1 to size)
+     * @return  true if safe to place the value
+     */
+    boolean isSafe(int cell, int value) {
+        return (candidates(cell) & (1 << (value - 1))) != 0;
+    }
+
+    /**
+     * Returns the bitmask of values still possible for a cell
+     * @param cell  cell index (row * size + column)
+     * @return  bitmask with bit (value - 1) set for every possible value
+     */
+    int candidates(int cell) {
+        return ~(rowMasks[layout.rowOf[cell]] | columnMasks[layout.columnOf[cell]] | boxMasks[layout.boxOf[cell]])
+                & layout.allValues;
+    }
+
+    /**
+     * Marks the value as used in the row, column and box of the cell
+     * @param cell  cell index (row * size + column)
+     * @param value value placed (1 to size)
+     */
+    void place(int cell, int value) {
+        int bit = 1 << (value - 1);
+        rowMasks[layout.rowOf[cell]] |= bit;
+        columnMasks[layout.columnOf[cell]] |= bit;
+        boxMasks[layout.boxOf[cell]] |= bit;
+    }
+
+    /**
+     * Marks the value as free again in the row, column and box of the cell
+     * @param cell  cell index (row * size + column)
+     * @param value value removed (1 to size)
+     */
+    void remove(int cell, int value) {
+        int bit = ~(1 << (value - 1));
+        rowMasks[layout.rowOf[cell]] &= bit;
+        columnMasks[layout.columnOf[cell]] &= bit;
+        boxMasks[layout.boxOf[cell]] &= bit;
+    }
+
+    /**
+     * Picks the empty cell with the fewest possible values (minimum remaining values)
+     * @param grid  board to look for empty cells in
+     * @return  cell index or -1 if there are no empty cells left
+     */
+    int selectCell(int[][] grid) {
+        int bestCell = -1;
+        int bestCount = layout.size + 1;
+        for(int cell = 0; cell < layout.cells; cell++) {
+            if(grid[layout.rowOf[cell]][layout.columnOf[cell]] == 0) {
+                int count = Integer.bitCount(candidates(cell));
+                if(count < bestCount) {
+                    bestCell = cell;
+                    bestCount = count;
+                    // a cell with 0 or 1 options can't be beaten
+                    if(count <= 1) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestCell;
+    }
+}
@@ -0,0 +1,80 @@
+package com.napier.sudoku;
+
+/**
+ * Result of checking the last value entered into a board - whether it repeats a value in its row, column
+ * or box, whether it differs from the solution and whether the cell was a given that couldn't be changed.
+ * Boards reuse one instance and fill it in on every insertValue, so checking never allocates.
+ * Repeats and mismatches are only checked while the board's live validation is on.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class Conflicts {
+    public static final int ROW = 1;
+    public static final int COLUMN = 2;
+    public static final int BOX = 4;
+    public static final int MISMATCH = 8;   // the value is not the one in the solution
+    public static final int GIVEN = 16;     // the cell is a given, nothing was changed
+
+    private int row;
+    private int column;
+    private int value;
+    private int flags;
+
+    /**
+     * Records the result of a check
+     * @param row   row (from 1)
+     * @param column    column (from 1)
+     * @param value value entered
+     * @param flags combination of ROW, COLUMN, BOX, MISMATCH and GIVEN
+     */
+    void set(int row, int column, int value, int flags) {
+        this.row = row;
+        this.column = column;
+        this.value = value;
+        this.flags = flags;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    /**
+     * Checks if anything was found wrong with the value
+     * @return  true if any flag is set
+     */
+    public boolean any() {
+        return flags != 0;
+    }
+
+    public boolean inRow() {
+        return (flags & ROW) != 0;
+    }
+
+    public boolean inColumn() {
+        return (flags & COLUMN) != 0;
+    }
+
+    public boolean inBox() {
+        return (flags & BOX) != 0;
+    }
+
+    public boolean isMismatch() {
+        return (flags & MISMATCH) != 0;
+    }
+
+    public boolean isGiven() {
+        return (flags & GIVEN) != 0;
+    }
+}
@@ -0,0 +1,324 @@
+package com.napier.sudoku;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Draws the game to the console. Every frame is built in one reusable buffer and written with a single call.
+ * The commands, help and rules texts are read from their files once, when the renderer is created.
+ * In ANSI mode the board stays at the top of the screen, the rest of the output scrolls below it,
+ * and redrawing the board only rewrites the cells that changed since the last frame.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class ConsoleRenderer {
+    private static final String DIVIDER = "-----------------------------------------------------------------------\n";
+    private static final String ESCAPE = "\u001B[";
+    private static final int BOARD_TOP = 3;     // screen line of the first row, after the numbering and a blank line
+    private static final int ROW_GAP = 4;   // spaces between the row number and the first box
+
+    private final PrintStream out;
+    private final boolean ansi;
+    private final byte[] commands;
+    private final byte[] help;
+    private final byte[] rules;
+    private byte[] buffer;
+    private int length;
+    private int[][] shown;  // board currently on the screen in ANSI mode, null if it has to be drawn in full
+
+    /**
+     * Constructor
+     * @param out   stream to write to
+     * @param ansi  true to keep the board in place and redraw only changed cells using ANSI escape codes
+     */
+    public ConsoleRenderer(PrintStream out, boolean ansi) {
+        this.out = out;
+        this.ansi = ansi;
+        this.commands = load("commands.txt", "Could not print commands");
+        this.help = load("help.txt", "Could not print help instructions");
+        this.rules = load("rules.txt", "Could not print the rules");
+        this.buffer = new byte[1024];
+    }
+
+    /**
+     * Prints a board. In ANSI mode only the cells that differ from the board on the screen are written.
+     * @param board board to print
+     */
+    public void printBoard(int[][] board) {
+        length = 0;
+        if(ansi && shown != null && shown.length == board.length) {
+            appendChanges(board);
+        }
+        else {
+            appendBoard(board);
+        }
+        flush();
+    }
+
+    /**
+     * Prints the menu of game options
+     * @param cluesUsed number of clues used so far
+     */
+    public void printCommands(int cluesUsed) {
+        length = 0;
+        appendCommands(cluesUsed);
+        flush();
+    }
+
+    /**
+     * Prints the help instructions followed by the menu of game options
+     * @param cluesUsed number of clues used so far
+     */
+    public void printHelp(int cluesUsed) {
+        length = 0;
+        append(help);
+        appendCommands(cluesUsed);
+        flush();
+    }
+
+    /**
+     * Prints the rules
+     */
+    public void printRules() {
+        length = 0;
+        append(rules);
+        flush();
+    }
+
+    /**
+     * Forgets the board on the screen, so the next board is drawn in full. In ANSI mode the whole screen
+     * can scroll again afterwards.
+     */
+    public void reset() {
+        if(ansi && shown != null) {
+            length = 0;
+            append(ESCAPE).append("r");
+            flush();
+        }
+        shown = null;
+    }
+
+    /**
+     * Adds the whole board to the frame
+     * @param board board to add
+     */
+    private void appendBoard(int[][] board) {
+        int size = board.length;
+        int boxSize = (int) Math.sqrt(size);
+        int width = width(size);
+        if(ansi) {
+            // clear the screen and draw the board at the top
+            append(ESCAPE).append("2J").append(ESCAPE).append("H");
+        }
+        // columns numbering
+        appendSpaces(width + ROW_GAP);
+        for(int j = 0; j < size; j++) {
+            if(j % boxSize == 0) {
+                append("  ");
+            }
+            appendPadded(j + 1, width).append(' ');
+        }
+        append("\n\n");
+
+        // the grid
+        for(int i = 0; i < size; i++) {
+            if(i % boxSize == 0 && i != 0) {
+                append('\n');
+            }
+            appendPadded(i + 1, width).appendSpaces(ROW_GAP);
+            for(int j = 0; j < size; j++) {
+                if(j % boxSize == 0) {
+                    append("| ");
+                }
+                appendCell(board[i][j], width).append(' ');
+            }
+            append("|\n");
+        }
+
+        if(ansi) {
+            // keep everything below the board scrolling on its own
+            int bottom = screenLine(size - 1, boxSize) + 2;
+            append(ESCAPE).appendValue(bottom).append("r");
+            append(ESCAPE).appendValue(bottom).append(";1H");
+            if(shown == null || shown.length != size) {
+                shown = new int[size][size];
+            }
+            for(int i = 0; i < size; i++) {
+                System.arraycopy(board[i], 0, shown[i], 0, size);
+            }
+        }
+    }
+
+    /**
+     * Adds the cells that differ from the board on the screen to the frame
+     * @param board board to add
+     */
+    private void appendChanges(int[][] board) {
+        int size = board.length;
+        int boxSize = (int) Math.sqrt(size);
+        int width = width(size);
+        append("\u001B7");   // remember where the output below the board is
+        for(int i = 0; i < size; i++) {
+            for(int j = 0; j < size; j++) {
+                if(board[i][j] != shown[i][j]) {
+                    append(ESCAPE).appendValue(screenLine(i, boxSize)).append(';')
+                            .appendValue(screenColumn(j, boxSize, width)).append('H');
+                    appendCell(board[i][j], width);
+                    shown[i][j] = board[i][j];
+                }
+            }
+        }
+        append("\u001B8");  // and go back there
+    }
+
+    /**
+     * Adds the menu of game options and the number of clues left to the frame
+     * @param cluesUsed number of clues used so far
+     */
+    private void appendCommands(int cluesUsed) {
+        append(DIVIDER).append(commands).append(DIVIDER);
+        if(cluesUsed < GameSession.MAX_CLUES) {
+            append("Clues available: ").appendValue(GameSession.MAX_CLUES - cluesUsed).append('/')
+                    .appendValue(GameSession.MAX_CLUES).append('\n');
+        }
+        else {
+            append("No clues available\n");
+        }
+    }
+
+    /**
+     * Returns the screen line (from 1) of a board row
+     * @param row   row index
+     * @param boxSize   size of a box
+     * @return  screen line
+     */
+    private static int screenLine(int row, int boxSize) {
+        return BOARD_TOP + row + row / boxSize;
+    }
+
+    /**
+     * Returns the screen column (from 1) where a board column starts
+     * @param column    column index
+     * @param boxSize   size of a box
+     * @param width characters per cell
+     * @return  screen column
+     */
+    private static int screenColumn(int column, int boxSize, int width) {
+        return width + ROW_GAP + 1 + 2 * (column / boxSize + 1) + (width + 1) * column;
+    }
+
+    /**
+     * Returns the number of characters needed for the values of a board
+     * @param size  number of rows of the board
+     * @return  1 up to 9x9, otherwise 2
+     */
+    private static int width(int size) {
+        return size > 9 ? 2 : 1;
+    }
+
+    /**
+     * Adds a cell right-aligned, _ if empty
+     * @param value value of the cell
+     * @param width characters to fill
+     * @return  this renderer
+     */
+    private ConsoleRenderer appendCell(int value, int width) {
+        if(value == 0) {
+            return appendSpaces(width - 1).append('_');
+        }
+        return appendPadded(value, width);
+    }
+
+    /**
+     * Adds a non-negative number right-aligned
+     * @param value number to add
+     * @param width characters to fill
+     * @return  this renderer
+     */
+    private ConsoleRenderer appendPadded(int value, int width) {
+        return appendSpaces(width - (value >= 10 ? 2 : 1)).appendValue(value);
+    }
+
+    private ConsoleRenderer appendSpaces(int count) {
+        for(int i = 0; i < count; i++) {
+            append(' ');
+        }
+        return this;
+    }
+
+    /**
+     * Adds a non-negative number
+     * @param value number to add
+     * @return  this renderer
+     */
+    private ConsoleRenderer appendValue(int value) {
+        if(value >= 10) {
+            appendValue(value / 10);
+        }
+        return append((char) ('0' + value % 10));
+    }
+
+    private ConsoleRenderer append(char c) {
+        ensureCapacity(1);
+        buffer[length++] = (byte) c;
+        return this;
+    }
+
+    private ConsoleRenderer append(String text) {
+        ensureCapacity(text.length());
+        for(int i = 0; i < text.length(); i++) {
+            buffer[length++] = (byte) text.charAt(i);
+        }
+        return this;
+    }
+
+    private ConsoleRenderer append(byte[] text) {
+        ensureCapacity(text.length);
+        System.arraycopy(text, 0, buffer, length, text.length);
+        length += text.length;
+        return this;
+    }
+
+    /**
+     * Grows the frame buffer if it can't take some more bytes
+     * @param extra number of bytes to add
+     */
+    private void ensureCapacity(int extra) {
+        if(length + extra > buffer.length) {
+            byte[] grown = new byte[Math.max(buffer.length * 2, length + extra)];
+            System.arraycopy(buffer, 0, grown, 0, length);
+            buffer = grown;
+        }
+    }
+
+    /**
+     * Writes the frame in a single call
+     */
+    private void flush() {
+        out.write(buffer, 0, length);
+        out.flush();
+    }
+
+    /**
+     * Reads a text file, making sure it ends with a line break
+     * @param fileName  name of the file
+     * @param error message shown instead if the file can't be read
+     * @return  contents of the file
+     */
+    private static byte[] load(String fileName, String error) {
+        String text;
+        try {
+            text = Files.readString(Paths.get(fileName), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        }
+        catch (IOException ex) {
+            text = error;
+        }
+        if(!text.endsWith("\n")) {
+            text += "\n";
+        }
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
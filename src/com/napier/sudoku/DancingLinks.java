@@ -0,0 +1,292 @@
+package com.napier.sudoku;
+
+/**
+ * Algorithm X solver using Dancing Links over the exact cover matrix of a sudoku.
+ * For a 9x9 board the matrix has 324 constraint columns (cell, row-value, column-value, box-value) and 729 rows
+ * (one for every value in every cell). It is allocated once and restored after every search,
+ * so a single instance can be reused for any number of boards.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+class DancingLinks implements Solver {
+    private static final int ROOT = 0;
+
+    private final CandidateGrid.Layout layout;
+    private final int size;
+    private final int cells;
+    private final int constraints;
+
+    // node links - index 0 is the root, then the column headers, the rest are matrix nodes
+    private final int[] left;
+    private final int[] right;
+    private final int[] up;
+    private final int[] down;
+    private final int[] columnOf;
+    private final int[] choiceOf;   // cell * size + (value - 1) for matrix nodes
+    private final int[] columnSize; // number of nodes left in each column
+    private final int[] firstNode;  // first node of each choice row
+    private final int[] coveredGivens;  // choice rows selected for the givens of the current grid
+    private final int[] solution;   // choice rows selected during the search
+
+    private int limit;
+    private int solutionsFound;
+    private long stepsLeft;  // search steps allowed before a count gives up
+    private int[][] grid;
+    private boolean keepSolution;
+
+    /**
+     * Constructor - builds the full exact cover matrix
+     * @param boxSize   size of a box of the boards to solve
+     */
+    DancingLinks(int boxSize) {
+        this.layout = CandidateGrid.layout(boxSize);
+        this.size = layout.size;
+        this.cells = layout.cells;
+        this.constraints = 4 * cells;
+        int nodes = 1 + constraints + cells * size * 4;
+        this.left = new int[nodes];
+        this.right = new int[nodes];
+        this.up = new int[nodes];
+        this.down = new int[nodes];
+        this.columnOf = new int[nodes];
+        this.choiceOf = new int[nodes];
+        this.columnSize = new int[constraints + 1];
+        this.firstNode = new int[cells * size];
+        this.coveredGivens = new int[cells];
+        this.solution = new int[cells];
+
+        // link the root and the column headers in a circular list
+        for(int i = 0; i <= constraints; i++) {
+            left[i] = i == 0 ? constraints : i - 1;
+            right[i] = i == constraints ? 0 : i + 1;
+            up[i] = i;
+            down[i] = i;
+            columnOf[i] = i;
+        }
+
+        // add four nodes for every possible value in every cell
+        int node = constraints + 1;
+        for(int cell = 0; cell < cells; cell++) {
+            int row = layout.rowOf[cell];
+            int column = layout.columnOf[cell];
+            int box = layout.boxOf[cell];
+            for(int v = 0; v < size; v++) {
+                int choice = cell * size + v;
+                firstNode[choice] = node;
+                int[] columns = {
+                        1 + cell,
+                        1 + cells + row * size + v,
+                        1 + 2 * cells + column * size + v,
+                        1 + 3 * cells + box * size + v
+                };
+                for(int i = 0; i < 4; i++) {
+                    int header = columns[i];
+                    // append vertically at the bottom of the column
+                    columnOf[node] = header;
+                    choiceOf[node] = choice;
+                    up[node] = up[header];
+                    down[node] = header;
+                    down[up[header]] = node;
+                    up[header] = node;
+                    columnSize[header]++;
+                    // link horizontally within the choice row
+                    left[node] = i == 0 ? node + 3 : node - 1;
+                    right[node] = i == 3 ? node - 3 : node + 1;
+                    node++;
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean solve(int[][] grid) {
+        keepSolution = true;
+        stepsLeft = Long.MAX_VALUE;
+        return run(grid, 1) == 1;
+    }
+
+    @Override
+    public int countSolutions(int[][] grid, int limit) {
+        return countSolutions(grid, limit, Long.MAX_VALUE);
+    }
+
+    /**
+     * Counts the solutions of a grid, giving up after a number of search steps.
+     * Giving up counts as reaching the limit, so a board is never wrongly reported as having fewer solutions.
+     * @param grid  board to search
+     * @param limit number of solutions to stop at
+     * @param maxSteps  number of search steps allowed
+     * @return  number of solutions found, or limit if the search gave up
+     */
+    int countSolutions(int[][] grid, int limit, long maxSteps) {
+        keepSolution = false;
+        stepsLeft = maxSteps;
+        int found = run(grid, limit);
+        return stepsLeft < 0 ? limit : found;
+    }
+
+    /**
+     * Returns the search steps left after the last count
+     * @return  steps left, below 0 if the count gave up
+     */
+    long getStepsLeft() {
+        return stepsLeft;
+    }
+
+    /**
+     * Covers the givens of the grid, searches and restores the matrix afterwards
+     * @param grid  board to search
+     * @param limit number of solutions to stop at
+     * @return  number of solutions found
+     */
+    private int run(int[][] grid, int limit) {
+        this.grid = grid;
+        this.limit = limit;
+        this.solutionsFound = 0;
+
+        // select the rows of all givens - stop if two givens share a constraint
+        int givens = 0;
+        boolean valid = true;
+        for(int cell = 0; cell < cells && valid; cell++) {
+            int value = grid[layout.rowOf[cell]][layout.columnOf[cell]];
+            if(value != 0) {
+                int rowNode = firstNode[cell * size + value - 1];
+                if(!isRowAvailable(rowNode)) {
+                    valid = false;
+                }
+                else {
+                    selectRow(rowNode);
+                    coveredGivens[givens++] = rowNode;
+                }
+            }
+        }
+        if(valid) {
+            search(0);
+        }
+        // restore the matrix in reverse order
+        for(int i = givens - 1; i >= 0; i--) {
+            deselectRow(coveredGivens[i]);
+        }
+        this.grid = null;
+        return solutionsFound;
+    }
+
+    /**
+     * Recursive Algorithm X search choosing the column with the fewest nodes
+     * @param depth number of rows chosen so far
+     */
+    private void search(int depth) {
+        if(--stepsLeft < 0) {
+            // out of steps - stop the whole search
+            solutionsFound = limit;
+            return;
+        }
+        if(right[ROOT] == ROOT) {
+            // all constraints satisfied - write the first solution into the grid
+            if(solutionsFound == 0 && keepSolution) {
+                for(int i = 0; i < depth; i++) {
+                    int choice = choiceOf[solution[i]];
+                    int cell = choice / size;
+                    grid[layout.rowOf[cell]][layout.columnOf[cell]] = choice % size + 1;
+                }
+            }
+            solutionsFound++;
+            return;
+        }
+        int column = right[ROOT];
+        for(int c = right[column]; c != ROOT && columnSize[column] > 1; c = right[c]) {
+            // a column with one node left can't be beaten - stop looking on large boards
+            if(columnSize[c] < columnSize[column]) {
+                column = c;
+            }
+        }
+        if(columnSize[column] == 0) {
+            return;
+        }
+        cover(column);
+        for(int r = down[column]; r != column && solutionsFound < limit; r = down[r]) {
+            solution[depth] = r;
+            for(int j = right[r]; j != r; j = right[j]) {
+                cover(columnOf[j]);
+            }
+            search(depth + 1);
+            for(int j = left[r]; j != r; j = left[j]) {
+                uncover(columnOf[j]);
+            }
+        }
+        uncover(column);
+    }
+
+    /**
+     * Checks that none of the columns of a choice row has been covered yet
+     * @param rowNode   first node of the row
+     * @return  true if the row can be selected
+     */
+    private boolean isRowAvailable(int rowNode) {
+        int node = rowNode;
+        do {
+            int header = columnOf[node];
+            if(right[left[header]] != header) {
+                return false;
+            }
+            node = right[node];
+        } while(node != rowNode);
+        return true;
+    }
+
+    /**
+     * Covers every column of a choice row
+     * @param rowNode   first node of the row
+     */
+    private void selectRow(int rowNode) {
+        int node = rowNode;
+        do {
+            cover(columnOf[node]);
+            node = right[node];
+        } while(node != rowNode);
+    }
+
+    /**
+     * Uncovers every column of a choice row, in reverse order of selectRow
+     * @param rowNode   first node of the row
+     */
+    private void deselectRow(int rowNode) {
+        int node = left[rowNode];
+        do {
+            uncover(columnOf[node]);
+            node = left[node];
+        } while(node != left[rowNode]);
+    }
+
+    /**
+     * Removes a column from the header list and all rows that use it from the other columns
+     * @param column    column header to cover
+     */
+    private void cover(int column) {
+        right[left[column]] = right[column];
+        left[right[column]] = left[column];
+        for(int i = down[column]; i != column; i = down[i]) {
+            for(int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                columnSize[columnOf[j]]--;
+            }
+        }
+    }
+
+    /**
+     * Reverses cover
+     * @param column    column header to uncover
+     */
+    private void uncover(int column) {
+        for(int i = up[column]; i != column; i = up[i]) {
+            for(int j = left[i]; j != i; j = left[j]) {
+                columnSize[columnOf[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+        right[left[column]] = column;
+        left[right[column]] = column;
+    }
+}
@@ -0,0 +1,137 @@
+package com.napier.sudoku;
+
+/**
+ * Levels of difficulty a board can be generated with.
+ * The numbers of empty cells are for a 9x9 board and are scaled to the number of cells of other sizes.
+ * Each level also has a range of DifficultyGrader scores, which decides the techniques a board needs.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public enum Difficulty {
+    EASY("easy", 40, 46, 0, 20),  // naked singles only
+    MEDIUM("medium", 46, 50, 20, 40), // hidden singles, pointing and claiming
+    HARD("hard", 50, 54, 40, DifficultyGrader.MAX_SCORE + 1); // subsets, fish or guessing
+
+    private final String name;
+    private final int minEmpty;
+    private final int maxEmpty;
+    private final int minScore;
+    private final int maxScore;
+
+    /**
+     * Constructor
+     * @param name  name used in save files and output
+     * @param minEmpty  lowest number of empty cells (inclusive)
+     * @param maxEmpty  highest number of empty cells (exclusive)
+     * @param minScore  lowest grader score (inclusive)
+     * @param maxScore  highest grader score (exclusive)
+     */
+    Difficulty(String name, int minEmpty, int maxEmpty, int minScore, int maxScore) {
+        this.name = name;
+        this.minEmpty = minEmpty;
+        this.maxEmpty = maxEmpty;
+        this.minScore = minScore;
+        this.maxScore = maxScore;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMinEmpty() {
+        return minEmpty;
+    }
+
+    public int getMaxEmpty() {
+        return maxEmpty;
+    }
+
+    public int getMinScore() {
+        return minScore;
+    }
+
+    public int getMaxScore() {
+        return maxScore;
+    }
+
+    /**
+     * Returns the lowest number of empty cells (inclusive) for a board size
+     * @param size  number of rows of the board
+     * @return  lowest number of empty cells
+     */
+    public int getMinEmpty(int size) {
+        return scale(minEmpty, size);
+    }
+
+    /**
+     * Returns the highest number of empty cells (exclusive) for a board size
+     * @param size  number of rows of the board
+     * @return  highest number of empty cells, always above getMinEmpty(size)
+     */
+    public int getMaxEmpty(int size) {
+        return Math.max(getMinEmpty(size) + 1, scale(maxEmpty, size));
+    }
+
+    /**
+     * Scales a number of empty cells of a 9x9 board to another board size. Boards above 9x9 get a smaller share
+     * of empty cells: digging symmetrical pairs while keeping one solution empties at most about 60% of a 16x16
+     * board and 55% of a 25x25 board, so their ranges are 7% and 19% below those of 9x9.
+     * @param empty number of empty cells of a 9x9 board
+     * @param size  number of rows of the board
+     * @return  number of empty cells for the board size
+     */
+    private static int scale(int empty, int size) {
+        int cells = size * size;
+        return empty * cells / (81 + Math.max(cells - 81, 0) / 28);
+    }
+
+    /**
+     * Checks if boards of this level can be made in a size. Every 4x4 board with one solution can be finished
+     * with naked singles alone, so 4x4 boards are always easy.
+     * @param boxSize   size of a box of the board
+     * @return  true if a board of this level and size can be generated
+     */
+    public boolean isAvailable(int boxSize) {
+        return this == EASY || boxSize > CandidateGrid.MIN_BOX_SIZE;
+    }
+
+    /**
+     * Returns the hardest technique a board of this level may need, going by the scores of DifficultyGrader
+     * @return  hardest technique allowed
+     */
+    public Technique getHardestTechnique() {
+        Technique hardest = Technique.NAKED_SINGLE;
+        for(Technique technique : Technique.values()) {
+            if(technique.getWeight() * 10 < maxScore) {
+                hardest = technique;
+            }
+        }
+        return hardest;
+    }
+
+    /**
+     * Returns how far a grader score is from the range of this level
+     * @param score score given by DifficultyGrader
+     * @return  0 if the score fits this level
+     */
+    public int scoreDistance(int score) {
+        if(score < minScore) {
+            return minScore - score;
+        }
+        return score >= maxScore ? score - maxScore + 1 : 0;
+    }
+
+    /**
+     * Returns the level a grader score belongs to
+     * @param score score given by DifficultyGrader
+     * @return  level of difficulty
+     */
+    public static Difficulty ofScore(int score) {
+        for(Difficulty difficulty : values()) {
+            if(difficulty.scoreDistance(score) == 0) {
+                return difficulty;
+            }
+        }
+        return HARD;
+    }
+}
@@ -0,0 +1,97 @@
+package com.napier.sudoku;
+
+/**
+ * Grades puzzles by how hard they are for a person to solve rather than by the number of empty cells.
+ * The puzzle is solved with the logical techniques first. The score is ten times the weight of the hardest
+ * technique needed, plus one for every deduction made with something harder than singles (at most 9).
+ * Puzzles the techniques can't finish score SEARCH_SCORE plus ten points for every doubling of the search
+ * steps needed to finish them (at most 99, reached at about a thousand steps).
+ * Grading a 9x9 puzzle takes microseconds and allocates nothing, so every generated board can be graded.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class DifficultyGrader {
+    public static final int SEARCH_SCORE = 100;   // lowest score of a puzzle that needs guessing
+    public static final int MAX_SCORE = SEARCH_SCORE + 99;
+    private static final int SEARCH_SCALE = 10;    // score points for every doubling of the search steps
+    private static final long MAX_SEARCH_STEPS = 1024;  // past this many steps, a puzzle scores MAX_SCORE
+    private static final double LN_2 = Math.log(2);
+
+    private final LogicalSolver solver;
+    private final DancingLinks dancingLinks;
+    private final int[][] stuck;    // board left by the logical solver when it gets stuck
+    private int searchSteps;
+    private int solutions;  // solutions found by the last grade, -1 if the search gave up
+
+    /**
+     * Constructor
+     * @param boxSize   size of a box of the boards to grade (3 for 9x9)
+     */
+    public DifficultyGrader(int boxSize) {
+        this.solver = new LogicalSolver(boxSize);
+        this.dancingLinks = new DancingLinks(boxSize);
+        this.stuck = new int[boxSize * boxSize][boxSize * boxSize];
+    }
+
+    /**
+     * Grades a puzzle. The puzzle itself is not changed.
+     * @param puzzle    board to grade (0 for empty cells)
+     * @return  score from 0 (nothing to solve) to MAX_SCORE
+     */
+    public int grade(int[][] puzzle) {
+        searchSteps = 0;
+        solutions = 1;
+        if(!solver.solve(puzzle)) {
+            // measure how much guessing is left once the techniques run out
+            solver.copyValues(stuck);
+            solutions = dancingLinks.countSolutions(stuck, 2, MAX_SEARCH_STEPS);
+            long stepsLeft = dancingLinks.getStepsLeft();
+            if(stepsLeft < 0) {
+                solutions = -1;
+                searchSteps = (int) MAX_SEARCH_STEPS;
+            }
+            else {
+                searchSteps = (int) (MAX_SEARCH_STEPS - stepsLeft);
+            }
+            // the score grows with the logarithm of the steps, so very different searches still score differently
+            int points = (int) Math.round(SEARCH_SCALE * Math.log(searchSteps + 1) / LN_2);
+            return SEARCH_SCORE + Math.min(points, MAX_SCORE - SEARCH_SCORE);
+        }
+        Technique hardest = solver.getHardestTechnique();
+        if(hardest == null) {
+            return 0;
+        }
+        int advanced = 0;
+        for(Technique technique : Technique.values()) {
+            if(technique.getWeight() > Technique.HIDDEN_SINGLE.getWeight()) {
+                advanced += solver.getUses(technique);
+            }
+        }
+        return hardest.getWeight() * 10 + Math.min(advanced, 9);
+    }
+
+    /**
+     * Returns the solver used in the last grade, to read the techniques that were needed
+     * @return  logical solver reused by this grader
+     */
+    public LogicalSolver getSolver() {
+        return solver;
+    }
+
+    /**
+     * Returns the number of solutions of the last graded puzzle, as far as grading found out.
+     * Puzzles the techniques finish have exactly one.
+     * @return  0, 1 or 2 (for two or more), or -1 if the search gave up before knowing
+     */
+    public int getSolutions() {
+        return solutions;
+    }
+
+    /**
+     * Returns the search steps the last graded puzzle needed after the techniques ran out
+     * @return  search steps, 0 if the techniques solved it
+     */
+    public int getSearchSteps() {
+        return searchSteps;
+    }
+}
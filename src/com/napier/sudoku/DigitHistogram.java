@@ -0,0 +1,212 @@
+package com.napier.sudoku;
+
+/**
+ * Counts of every value in the playing board, in total and per row, column and box.
+ * Boards keep it up to date on every change, so reading it never scans or allocates.
+ * Outside of the package it is read-only.
+ * Rows, columns and boxes are numbered from 0, boxes left to right and top to bottom.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class DigitHistogram {
+    private final int size;
+    private final int boxSize;
+    private final int[] totals; // index is the value, 0 unused
+    private final int[][] rowCounts;
+    private final int[][] columnCounts;
+    private final int[][] boxCounts;
+    private final int[] rowMasks;   // bit (value - 1) set while the value is in the row
+    private final int[] columnMasks;
+    private final int[] boxMasks;
+    private int filled;
+    private int repeats;    // values that repeat one already in their row, column or box, counted per unit
+
+    /**
+     * Constructor
+     * @param boxSize   size of a box (3 for a 9x9 board)
+     */
+    DigitHistogram(int boxSize) {
+        this.boxSize = boxSize;
+        this.size = boxSize * boxSize;
+        this.totals = new int[size + 1];
+        this.rowCounts = new int[size][size + 1];
+        this.columnCounts = new int[size][size + 1];
+        this.boxCounts = new int[size][size + 1];
+        this.rowMasks = new int[size];
+        this.columnMasks = new int[size];
+        this.boxMasks = new int[size];
+    }
+
+    /**
+     * Returns how many times a value is in the board
+     * @param value value (from 1)
+     * @return  count of the value
+     */
+    public int count(int value) {
+        return totals[value];
+    }
+
+    /**
+     * Returns how many times values repeat in rows, columns and boxes. A value in two cells of a row counts once,
+     * in three cells twice, and a cell repeating a value in both its row and its box counts twice.
+     * @return  number of repeats, 0 if no unit has a value twice
+     */
+    public int repeats() {
+        return repeats;
+    }
+
+    /**
+     * Returns how many cells of the board are filled in
+     * @return  number of filled cells
+     */
+    public int filledCells() {
+        return filled;
+    }
+
+    public int rowCount(int row, int value) {
+        return rowCounts[row][value];
+    }
+
+    public int columnCount(int column, int value) {
+        return columnCounts[column][value];
+    }
+
+    public int boxCount(int box, int value) {
+        return boxCounts[box][value];
+    }
+
+    public boolean rowContains(int row, int value) {
+        return rowCounts[row][value] != 0;
+    }
+
+    public boolean columnContains(int column, int value) {
+        return columnCounts[column][value] != 0;
+    }
+
+    public boolean boxContains(int box, int value) {
+        return boxCounts[box][value] != 0;
+    }
+
+    /**
+     * Returns the values present in a row as a bitmask
+     * @param row   row (from 0)
+     * @return  bitmask with bit (value - 1) set for every value in the row
+     */
+    public int rowMask(int row) {
+        return rowMasks[row];
+    }
+
+    /**
+     * Returns the values present in a column as a bitmask
+     * @param column    column (from 0)
+     * @return  bitmask with bit (value - 1) set for every value in the column
+     */
+    public int columnMask(int column) {
+        return columnMasks[column];
+    }
+
+    /**
+     * Returns the values present in a box as a bitmask
+     * @param box   box (from 0)
+     * @return  bitmask with bit (value - 1) set for every value in the box
+     */
+    public int boxMask(int box) {
+        return boxMasks[box];
+    }
+
+    /**
+     * Returns the box a cell belongs to
+     * @param row   row (from 0)
+     * @param column    column (from 0)
+     * @return  box number
+     */
+    public int boxOf(int row, int column) {
+        return (row / boxSize) * boxSize + column / boxSize;
+    }
+
+    /**
+     * Counts a value placed in a cell
+     * @param row   row (from 0)
+     * @param column    column (from 0)
+     * @param value value placed (from 1)
+     */
+    void add(int row, int column, int value) {
+        int box = boxOf(row, column);
+        int bit = 1 << (value - 1);
+        totals[value]++;
+        filled++;
+        if(rowCounts[row][value]++ != 0) {
+            repeats++;
+        }
+        if(columnCounts[column][value]++ != 0) {
+            repeats++;
+        }
+        if(boxCounts[box][value]++ != 0) {
+            repeats++;
+        }
+        rowMasks[row] |= bit;
+        columnMasks[column] |= bit;
+        boxMasks[box] |= bit;
+    }
+
+    /**
+     * Removes a value taken out of a cell from the counts
+     * @param row   row (from 0)
+     * @param column    column (from 0)
+     * @param value value removed (from 1)
+     */
+    void remove(int row, int column, int value) {
+        int box = boxOf(row, column);
+        int bit = 1 << (value - 1);
+        totals[value]--;
+        filled--;
+        // the value stays in the unit's mask while another cell of the unit still has it
+        if(--rowCounts[row][value] == 0) {
+            rowMasks[row] &= ~bit;
+        }
+        else {
+            repeats--;
+        }
+        if(--columnCounts[column][value] == 0) {
+            columnMasks[column] &= ~bit;
+        }
+        else {
+            repeats--;
+        }
+        if(--boxCounts[box][value] == 0) {
+            boxMasks[box] &= ~bit;
+        }
+        else {
+            repeats--;
+        }
+    }
+
+    /**
+     * Rebuilds all counts from a board
+     * @param grid  board to count (0 for empty)
+     */
+    void load(int[][] grid) {
+        for(int i = 0; i < size; i++) {
+            for(int v = 0; v <= size; v++) {
+                rowCounts[i][v] = 0;
+                columnCounts[i][v] = 0;
+                boxCounts[i][v] = 0;
+            }
+            rowMasks[i] = 0;
+            columnMasks[i] = 0;
+            boxMasks[i] = 0;
+        }
+        for(int v = 0; v <= size; v++) {
+            totals[v] = 0;
+        }
+        filled = 0;
+        repeats = 0;
+        for(int r = 0; r < size; r++) {
+            for(int c = 0; c < size; c++) {
+                if(grid[r][c] != 0) {
+                    add(r, c, grid[r][c]);
+                }
+            }
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package com.napier.sudoku;
 
-import java.io.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 /**
- * Main class with driver code for the game
+ * Main class with driver code for the console game. The game being played is kept in a GameSession.
  * @author 40495101
- * Last modified: 29/04/2022
+ * Last modified: 17/10/2026
  */
 public class GameLogic {
     // user action codes
@@ -19,17 +23,17 @@ public class GameLogic {
     private static final int EASY = 1;
     private static final int MEDIUM = 2;
     private static final int HARD = 3;
+    private static final int SAVES_PER_PAGE = 10;
+    private static final Path SAVES_DIRECTORY = Paths.get("saves");
 
     // game properties
-    private static Board board;
-    private static Stack<String> moves;
-    private static Stack<String> undoneMoves;
-    private static Queue<String> movesQueue;
-    private static int cluesUsed;
-    private static boolean saveUpToDate;
-    private static String difficultyLevel;
-    private static File save;
-    private static File[] saves;
+    private static GameSession session;
+    private static Board board; // board of the session
+    private static SaveCatalog catalog;
+    private static PuzzlePool puzzlePool;
+    private static ConsoleRenderer renderer;
+    private static final boolean JOURNALED_SAVES = Boolean.parseBoolean(System.getProperty("sudoku.journal", "true"));
+    private static final boolean LIVE_VALIDATION = Boolean.getBoolean("sudoku.liveValidation");
 
     /**
      * Driver code
@@ -38,14 +42,29 @@ public class GameLogic {
         System.out.println("Hello, sudoku master!");
         Scanner scanner = new Scanner(System.in);
         int actionCode = -1;
+        renderer = new ConsoleRenderer(System.out, Boolean.getBoolean("sudoku.ansi"));
+        // keep some boards of every difficulty ready in the background
+        puzzlePool = new PuzzlePool(Integer.getInteger("sudoku.pool.capacity", 8),
+                Integer.getInteger("sudoku.pool.lowWater", 4), Paths.get("pool.txt"));
+        puzzlePool.start();
+        // counters and histograms of the engine can be read over JMX
+        Metrics.register();
+        // open the index of game saves
+        try {
+            catalog = new SaveCatalog(SAVES_DIRECTORY);
+        }
+        catch (IOException ex) {
+            System.out.println("Could not read the game saves");
+        }
 
         // stay in the game until the user selects 0 to exit
         while (actionCode != 0) {
             actionCode = getUserAction(scanner);
             performUserAction(actionCode, scanner);
         }
-        // close the scanner
+        // close the scanner and keep the remaining boards for the next start
         scanner.close();
+        puzzlePool.stop();
     }
 
     /**
@@ -94,23 +113,24 @@ public class GameLogic {
                 // start a new game according to level of difficulty
                 int gameDifficulty = getGameDifficulty(scanner);
                 if(gameDifficulty != 0) {
-                    System.out.println("Starting a new game");
-                    startGame(gameDifficulty, scanner);
+                    int boxSize = getBoardSize(scanner);
+                    if(boxSize != 0) {
+                        startGame(gameDifficulty, boxSize, scanner);
+                    }
                 }
                 break;
             case LOAD_GAME:
-                int savesNumber = displaySaves();
-                int choice;
-                choice = selectSave(scanner, savesNumber);
-                if(choice == 0) {
+                SaveCatalog.Entry selected = selectSave(scanner);
+                if(selected == null) {
                     break;
                 }
-                System.out.println("Save selected: " + choice);
-                loadSavedGame(choice);
-                playGame(scanner);
+                System.out.println("Save selected: " + selected.getId());
+                if(loadSavedGame(selected)) {
+                    playGame(scanner);
+                }
                 break;
             case RULES:
-                printRules();
+                renderer.printRules();
                 break;
             default:
                 System.out.println("An unexpected error occurred, please try again.");
@@ -151,36 +171,91 @@ public class GameLogic {
     }
 
     /**
-     * Starts a new sudoku game of selected difficulty and initialises board and stacks
+     * Prompts the user to select the size of the board
+     * @param scanner   Scanner object to read user input
+     * @return  box size of the board selected (2 for 4x4 up to 5 for 25x25), 0 to exit
      */
-    private static void startGame(int gameDifficulty, Scanner scanner) {
-        board = new Board();
-        moves = new Stack<>();
-        undoneMoves = new Stack<>();
-        movesQueue = new LinkedList<>();
-        cluesUsed = 0;
-        saveUpToDate = true;
+    private static int getBoardSize(Scanner scanner) {
+        int choice;
+        while(true) {
+            System.out.println("Choose board size:");
+            for(int boxSize = CandidateGrid.MIN_BOX_SIZE; boxSize <= CandidateGrid.MAX_BOX_SIZE; boxSize++) {
+                int size = boxSize * boxSize;
+                System.out.println((boxSize - 1) + " - " + size + "x" + size);
+            }
+            System.out.println("0 - Exit");
+
+            try {
+                choice = scanner.nextInt();
+            }
+            catch (Exception ex) {
+                System.out.println("Please enter a valid option code");
+                scanner.next();
+                continue;
+            }
+            //check if valid code
+            if (choice < 0 || choice > CandidateGrid.MAX_BOX_SIZE - 1) {
+                System.out.println("Please enter a valid option code");
+            }
+            else {
+                return choice == 0 ? 0 : choice + 1;
+            }
+        }
+    }
 
+    /**
+     * Starts a new sudoku game of selected difficulty and initialises board and stacks
+     */
+    private static void startGame(int gameDifficulty, int boxSize, Scanner scanner) {
+        Difficulty difficulty;
         switch (gameDifficulty) {
             case EASY:
-                board.generateEasyBoard();
-                difficultyLevel = "easy";
-                createSaveFile();
-                playGame(scanner);
+                difficulty = Difficulty.EASY;
                 break;
             case MEDIUM:
-                board.generateMediumBoard();
-                difficultyLevel = "medium";
-                createSaveFile();
-                playGame(scanner);
+                difficulty = Difficulty.MEDIUM;
                 break;
             case HARD:
-                board.generateHardBoard();
-                difficultyLevel = "hard";
-                createSaveFile();
-                playGame(scanner);
+                difficulty = Difficulty.HARD;
                 break;
+            default:
+                return;
+        }
+        if(!difficulty.isAvailable(boxSize)) {
+            int size = boxSize * boxSize;
+            System.out.println("Only easy boards can be made in " + size + "x" + size + ", please choose another size");
+            return;
         }
+        System.out.println("Starting a new game");
+        try {
+            session = GameSession.start(newBoard(difficulty, boxSize), difficulty, SAVES_DIRECTORY, catalog,
+                    JOURNALED_SAVES);
+        }
+        catch (IOException ex) {
+            System.out.println("There was an error creating a save file");
+            return;
+        }
+        board = session.getBoard();
+        playGame(scanner);
+    }
+
+    /**
+     * Takes a 9x9 board from the pool, or generates a board of another size
+     * @param difficulty    level of difficulty
+     * @param boxSize   size of a box of the board
+     * @return  ready-to-play board
+     */
+    private static Board newBoard(Difficulty difficulty, int boxSize) {
+        if(boxSize == CandidateGrid.DEFAULT_BOX_SIZE) {
+            return puzzlePool.take(difficulty);
+        }
+        Board generated = new Board(boxSize, new Random());
+        switch (difficulty) {
+            case EASY -> generated.generateEasyBoard();
+            case MEDIUM -> generated.generateMediumBoard();
+            case HARD -> generated.generateHardBoard();
+        }
+        return generated;
     }
 
     /**
@@ -197,13 +272,14 @@ public class GameLogic {
             ex.printStackTrace();
         }
 
-        board.printBoard();
-        printCommands();
+        board.setLiveValidation(LIVE_VALIDATION);
+        renderer.printBoard(board.getBoard());
+        renderer.printCommands(session.getCluesUsed());
 
         System.out.println("Format of the coordinates: \"row column\"");
 
         // keep asking the user to do something until there are no empty cells in the board
-        while (!board.isSolved()) {
+        while (!checkBoard()) {
             // get the first letter that the user types
             System.out.println("Choose your next action");
             boolean validChoice = false;
@@ -215,7 +291,7 @@ public class GameLogic {
             }
             if (choice == 'E' || choice == 'e') {
                 // check if the save is up-to-date
-                if (!saveUpToDate) {
+                if (!session.isSaveUpToDate()) {
                     System.out.println("Are you sure you want to exit without saving [Y/N]?");
                     char confirm = scanner.next().charAt(0);
                     boolean exit = false;
@@ -239,147 +315,154 @@ public class GameLogic {
                 }
             }
         }
+        // let the menus use the whole screen again
+        renderer.reset();
     }
 
     /**
-     * Reads in all game saves from the 'saves' directory and displays them to the console to choose from
-     * @return  the number of saves read in
+     * Checks if the game is over, telling the player about errors once the board is full
+     * @return  true if the board is solved
      */
-    private static int displaySaves() {
-        // open folder
-        File directory = new File(".\\saves");
-        saves = directory.listFiles();
-        // check if saves is not empty
-        int saveCounter = 1;
-        if(saves != null) {
-            System.out.println("Game saves: ");
-            // display each save
-            for(File save : saves) {
-                String name = save.getName();
-                String noExtension = name.split("\\.")[0];
-                String[] split = noExtension.split("_");
-
-                DateTimeFormatter format = DateTimeFormatter.ofPattern("ddMMyyyyHHmm");
-                String date = split[0] + split[1];
-                LocalDateTime dateTime = LocalDateTime.parse(date, format);
-                DateTimeFormatter format2 = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static boolean checkBoard() {
+        if(board.isSolved()) {
+            System.out.println("Congratulations! You completed the board.");
+            return true;
+        }
+        if(board.countFilledCells() == board.getSize() * board.getSize()) {
+            System.out.println("You have some errors in your board.");
+        }
+        return false;
+    }
 
-                String display = saveCounter++ + " - Level: " + split[2] + ", " + "Date: " + dateTime.format(format2);
+    /**
+     * Tells the player what is wrong with the value just entered
+     * @param conflicts result of the last insertValue
+     */
+    private static void reportConflicts(Conflicts conflicts) {
+        if(conflicts.isGiven()) {
+            System.out.println("Cannot modify a given cell");
+            return;
+        }
+        if(!conflicts.any()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder();
+        if(conflicts.inRow() || conflicts.inColumn() || conflicts.inBox()) {
+            message.append(conflicts.getValue()).append(" is already in this");
+            String separator = " ";
+            if(conflicts.inRow()) {
+                message.append(separator).append("row");
+                separator = ", ";
+            }
+            if(conflicts.inColumn()) {
+                message.append(separator).append("column");
+                separator = ", ";
+            }
+            if(conflicts.inBox()) {
+                message.append(separator).append("box");
+            }
+            message.append(". ");
+        }
+        if(conflicts.isMismatch()) {
+            message.append(conflicts.getValue()).append(" doesn't belong at ").append(conflicts.getRow())
+                    .append(", ").append(conflicts.getColumn()).append('.');
+        }
+        System.out.println(message.toString().trim());
+    }
 
-                System.out.println(display);
+    /**
+     * Displays one page of game saves from the catalog, most recently saved first
+     * @param page  page to display, starting from 0
+     * @return  the saves displayed
+     */
+    private static List<SaveCatalog.Entry> displaySaves(int page) {
+        List<SaveCatalog.Entry> entries = catalog.query(SaveCatalog.SortKey.UPDATED, page, SAVES_PER_PAGE);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+        int pages = Math.max(1, (catalog.size() + SAVES_PER_PAGE - 1) / SAVES_PER_PAGE);
+        System.out.println("Game saves (page " + (page + 1) + "/" + pages + "): ");
+        // display each save on the page
+        int saveCounter = 1;
+        for(SaveCatalog.Entry entry : entries) {
+            LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.getCreated()), ZoneId.systemDefault());
+            String display = saveCounter++ + " - Level: " + entry.getLevel() + ", " + "Date: " + dateTime.format(format)
+                    + ", Progress: " + entry.getFilledCells() + "/" + entry.getSize() * entry.getSize()
+                    + ", Clues used: " + entry.getCluesUsed();
+            if(entry.getScore() >= 0) {
+                display += ", Score: " + entry.getScore();
             }
-            System.out.println("0 - Exit");
+            System.out.println(display);
+        }
+        if(page + 1 < pages) {
+            System.out.println("N - Next page");
+        }
+        if(page > 0) {
+            System.out.println("P - Previous page");
         }
-        return --saveCounter;
+        System.out.println("0 - Exit");
+        return entries;
     }
 
     /**
-     * Asks the user to select the code number of the save to load
+     * Asks the user to select the save to load, paging through the catalog
      * @param scanner   Scanner to read user input
-     * @param savesNumber   number of save file in the saves folder
-     * @return  code number the user selected
+     * @return  the save selected or null to go back to the main menu
      */
-    private static int selectSave(Scanner scanner, int savesNumber) {
-        int choice;
+    private static SaveCatalog.Entry selectSave(Scanner scanner) {
+        if(catalog == null || catalog.size() == 0) {
+            System.out.println("No game saves found");
+            return null;
+        }
+        int page = 0;
+        List<SaveCatalog.Entry> entries = displaySaves(page);
         // keep asking to select save until a valid code is input
         while(true) {
             System.out.println("Select the game code you want to load: ");
+            String input = scanner.next();
+            // move between pages
+            if(input.equalsIgnoreCase("N") && (page + 1) * SAVES_PER_PAGE < catalog.size()) {
+                entries = displaySaves(++page);
+                continue;
+            }
+            if(input.equalsIgnoreCase("P") && page > 0) {
+                entries = displaySaves(--page);
+                continue;
+            }
+            int choice;
             try {
-                choice = scanner.nextInt();
+                choice = Integer.parseInt(input);
             }
-            catch(Exception ex) {
+            catch(NumberFormatException ex) {
                 System.out.println("Please enter a valid option code");
-                scanner.next();
                 continue;
             }
             // if 0 selected - break and go back to main menu
             if(choice == 0) {
-                return choice;
+                return null;
             }
-            else {
-                // check if valid code - if so, return it
-                for(int i = 1; i <= savesNumber; i++) {
-                    if(i == choice) {
-                        return choice;
-                    }
-                }
-                // if invalid code, try again
-                System.out.println("Invalid code specified. Please try again.");
+            // check if valid code - if so, return the save
+            if(choice >= 1 && choice <= entries.size()) {
+                return entries.get(choice - 1);
             }
+            // if invalid code, try again
+            System.out.println("Invalid code specified. Please try again.");
         }
     }
 
     /**
      * Loads the information from the save file selected to the program
-     * @param saveCode  code number of the save to load
+     * @param entry catalog entry of the save to load
+     * @return  if the game was loaded successfully
      */
-    private static void loadSavedGame(int saveCode) {
-        // get the save selected
-        File saveSelected = saves[saveCode - 1];
-        String[] contents = new String[7];
-        // read in the save line by line
+    private static boolean loadSavedGame(SaveCatalog.Entry entry) {
         try {
-            BufferedReader br = new BufferedReader(new FileReader(saveSelected));
-            String line;
-            for(int i = 0; i < 7; i++) {
-                line = br.readLine();
-                contents[i] = line;
-            }
+            session = GameSession.load(entry, catalog, JOURNALED_SAVES);
         }
         catch (Exception ex) {
             System.out.println("Could not load the game.");
+            return false;
         }
-
-        // initialise attributes for the loading game
-        board = new Board();
-        moves = new Stack<>();
-        undoneMoves = new Stack<>();
-        movesQueue = new LinkedList<>();
-        cluesUsed = 0;
-        saveUpToDate = true;
-        save = saveSelected;
-
-        // read in the boards
-        board.readInBoard(contents[0], 1);
-        board.readInBoard(contents[1], 2);
-        board.readInBoard(contents[2], 3);
-
-        // read in the moves
-        if(!contents[3].isEmpty()) {
-            String[] movesSplit = contents[3].split(" ");
-            for(String move : movesSplit) {
-                moves.push(move);
-            }
-        }
-        if(!contents[4].isEmpty()) {
-            String[] undoneSplit = contents[4].split(" ");
-            for(String move : undoneSplit) {
-                undoneMoves.push(move);
-            }
-        }
-        if(!contents[5].isEmpty()) {
-            String[] queueSplit = contents[5].split(" ");
-            movesQueue.addAll(Arrays.asList(queueSplit));
-        }
-        // read in the number of clues used
-        cluesUsed = Integer.parseInt(contents[6]);
-    }
-
-    /**
-     * Prints the rules from a separate file
-     */
-    private static void printRules() {
-        // read in the rules file and print it out
-        try {
-            BufferedReader br = new BufferedReader(new FileReader("rules.txt"));
-            String line;
-            while ((line = br.readLine()) != null) {
-                System.out.println(line);
-            }
-        }
-        catch (Exception ex) {
-            System.out.println("Could not print the rules");
-        }
+        board = session.getBoard();
+        return true;
     }
 
     /**
@@ -401,16 +484,12 @@ public class GameLogic {
                 int column = rowColumn[1];
                 int value = askForValue(scanner);
 
-                // insert the value into the board
-                int initialValue = board.insertValue(row, column, value);
-                if(initialValue != -1) {
-                    // push the move onto the moves stack and store in the moves queue
-                    board.printBoard();
-                    printCommands();
-                    moves.push(String.valueOf(row) + String.valueOf(column) + String.valueOf(initialValue) + String.valueOf(value));
-                    movesQueue.add(String.valueOf(row) + String.valueOf(column) + String.valueOf(initialValue) + String.valueOf(value));
-                    saveUpToDate = false;
+                // insert the value into the board and record the move
+                if(session.insertValue(row, column, value) != -1) {
+                    renderer.printBoard(board.getBoard());
+                    renderer.printCommands(session.getCluesUsed());
                 }
+                reportConflicts(board.getConflicts());
                 return true;
             case 'U', 'u':
                 // undo a move
@@ -425,9 +504,9 @@ public class GameLogic {
                 replayAllMoves(scanner);
                 return true;
             case 'C', 'c':
-                // fill one random cell
+                // fill in the next cell that can be worked out
                 // check if all clues have not been used
-                if (cluesUsed >= 3) {
+                if (session.getCluesUsed() >= GameSession.MAX_CLUES) {
                     System.out.println("All clues have been used.");
                 }
                 else {
@@ -448,7 +527,7 @@ public class GameLogic {
                 return true;
             case 'H', 'h':
                 // print help
-                printHelp();
+                renderer.printHelp(session.getCluesUsed());
                 return true;
             default:
                 System.out.println("Invalid value specified. Please try again.");
@@ -463,6 +542,7 @@ public class GameLogic {
      */
     private static int[] askForCoordinates(Scanner scanner) {
         // ask for coordinates
+        int size = board.getSize();
         int row = -1;
         int column = -1;
         boolean incorrectCoordinates = true;
@@ -481,15 +561,15 @@ public class GameLogic {
             // check if they have been captured
             if(row != -1 && column != -1) {
                 // check if in range
-                if(row < 1 || row > 9 || column < 1 || column > 9) {
-                    System.out.println("Coordinates must be in range 1-9");
+                if(row < 1 || row > size || column < 1 || column > size) {
+                    System.out.println("Coordinates must be in range 1-" + size);
                 }
                 else {
                     incorrectCoordinates = false;
                 }
             }
             else {
-                System.out.println("Coordinates must be in range 1-9");
+                System.out.println("Coordinates must be in range 1-" + size);
             }
         }
         return new int[]{row, column};
@@ -502,6 +582,7 @@ public class GameLogic {
      */
     private static int askForValue(Scanner scanner) {
         // ask for a value
+        int size = board.getSize();
         int value = -1;
         boolean incorrectValue = true;
         // keep asking until valid value entered
@@ -518,15 +599,15 @@ public class GameLogic {
             // check if successfully captured
             if(value != -1) {
                 // check if in range
-                if (value < 1 || value > 9) {
-                    System.out.println("Value must be in range 1-9");
+                if (value < 1 || value > size) {
+                    System.out.println("Value must be in range 1-" + size);
                 }
                 else{
                     incorrectValue = false;
                 }
             }
             else {
-                System.out.println("Value must be in range 1-9");
+                System.out.println("Value must be in range 1-" + size);
             }
         }
         return value;
@@ -537,29 +618,13 @@ public class GameLogic {
      */
     private static void undoMove() {
         // check if there were any moves made
-        if(moves.empty()) {
+        if(session.undo() == -1) {
             System.out.println("No moves to undo");
         }
         else {
-            String lastMove = moves.pop();
-            String[] values = lastMove.split("");
-            int row = Integer.parseInt(values[0]);
-            int column = Integer.parseInt(values[1]);
-            int initialValue = Integer.parseInt(values[2]);
-
-            // check if the reverse of the move is possible
-            if(board.insertValue(row, column, initialValue) != -1) {
-                System.out.println("Move undone");
-                // push the undone move to the undone moves stack
-                // new value becomes initial value and vice versa
-                lastMove = values[0] + values[1] + values[3] + values[2];
-                undoneMoves.push(lastMove);
-                // store in the moves queue
-                movesQueue.add(lastMove);
-                saveUpToDate = false;
-                board.printBoard();
-                printCommands();
-            }
+            System.out.println("Move undone");
+            renderer.printBoard(board.getBoard());
+            renderer.printCommands(session.getCluesUsed());
         }
     }
 
@@ -568,135 +633,142 @@ public class GameLogic {
      */
     private static void redoMove() {
         // check if there are any moves to redo
-        if(undoneMoves.empty()) {
+        if(session.redo() == -1) {
             System.out.println("No moves to redo");
         }
         else {
-            String lastMove = undoneMoves.pop();
-            String[] values = lastMove.split("");
-            int row = Integer.valueOf(values[0]);
-            int column = Integer.valueOf(values[1]);
-            int value = Integer.valueOf(values[2]);
-
-            if(board.insertValue(row, column, value) != -1) {
-                System.out.println("Move redone");
-                // push the undone move to the undone moves stack
-                lastMove = values[0] + values[1] + values[3] + values[2];
-                moves.push(lastMove);
-                // store in the moves queue
-                movesQueue.add(lastMove);
-                saveUpToDate = false;
-                board.printBoard();
-                printCommands();
-            }
+            System.out.println("Move redone");
+            renderer.printBoard(board.getBoard());
+            renderer.printCommands(session.getCluesUsed());
         }
     }
 
     /**
-     * Manages replaying all the moves from beginning
+     * Manages replaying all the moves from beginning. The replay works on its own copy of the initial board,
+     * and can move forwards, backwards or jump straight to any move.
      * @param scanner   Scanner to read in user input
      */
     private static void replayAllMoves(Scanner scanner) {
         // check if there are any moves to replay at all
-        if(!movesQueue.isEmpty()) {
-            // get a copy of the initial board
-            int[][] initialBoard = board.getInitialBoard();
+        ReplayEngine replay = session.replay();
+        if(replay != null) {
             System.out.println("Initial board:");
-            printBoard(initialBoard);   // print the initial board
-            System.out.println("Press Enter to start replay.");
-            // once key is pressed, the timer will start
-            try {
-                System.in.read();
-            } catch (Exception ex) {
-                ex.printStackTrace();
-            }
+            renderer.printBoard(replay.getBoard());   // print the initial board
             // keep replaying moves until the user chooses to exit
             boolean exit = false;
             while(!exit) {
-                int moveCounter = 1;
-                for(String move : movesQueue){
-                    String[] split = move.split("");
-                    System.out.println("Move " + moveCounter++ + ": (" + split[0] + ", " + split[1] + ") " + split[3]);
-                    makeMove(initialBoard, move);
-                    // ask to continue
-                    boolean correctInput = false;
-                    while(!correctInput) {
-                        System.out.println("Type N to continue or E to exit replay");
-                        char choice = scanner.next().charAt(0);
-                        switch(choice) {
-                            case 'N':
-                            case 'n':
-                                correctInput = true;
-                                break;
-                            case 'E':
-                            case 'e':
-                                correctInput = true;
-                                exit = true;
-                                break;
-                            default:
-                                break;
-                        }
-                    }
+                System.out.println("Type N for the next move, B for the previous move, G to go to a move, "
+                        + "L for the last move or E to exit replay");
+                char choice = scanner.next().charAt(0);
+                boolean moved;
+                switch(choice) {
+                    case 'N', 'n':
+                        moved = replay.stepForward();
+                        break;
+                    case 'B', 'b':
+                        moved = replay.stepBack();
+                        break;
+                    case 'G', 'g':
+                        moved = seekMove(replay, scanner);
+                        break;
+                    case 'L', 'l':
+                        replay.seek(replay.getMoveCount());
+                        moved = true;
+                        break;
+                    case 'E', 'e':
+                        exit = true;
+                        moved = false;
+                        break;
+                    default:
+                        System.out.println("Invalid input. Try again");
+                        continue;
                 }
-                // if all moves replayed, break
-                if(moveCounter > movesQueue.size()) {
-                    break;
+                if(moved) {
+                    printReplayPosition(replay);
+                }
+                else if(!exit) {
+                    System.out.println(replay.getPosition() == 0 ? "Already at the initial board" : "No more moves");
                 }
             }
             System.out.println("Replay finished");
+            renderer.printBoard(board.getBoard());
         }
         else {
             System.out.println("No moves to replay");
         }
-        printCommands();
+        renderer.printCommands(session.getCluesUsed());
+    }
+
+    /**
+     * Asks for a move number and moves the replay to it
+     * @param replay    replay to move
+     * @param scanner   Scanner to read in user input
+     * @return  if the replay moved
+     */
+    private static boolean seekMove(ReplayEngine replay, Scanner scanner) {
+        System.out.print("Enter move number (0-" + replay.getMoveCount() + "): ");
+        try {
+            int moveNumber = scanner.nextInt();
+            if(moveNumber >= 0 && moveNumber <= replay.getMoveCount()) {
+                replay.seek(moveNumber);
+                return true;
+            }
+        }
+        catch (Exception ex) {
+            scanner.nextLine();
+        }
+        System.out.println("Invalid move number");
+        return false;
+    }
+
+    /**
+     * Prints the current move of a replay and the board after it
+     * @param replay    replay to print
+     */
+    private static void printReplayPosition(ReplayEngine replay) {
+        int move = replay.getCurrentMove();
+        if(replay.getPosition() == 0) {
+            System.out.println("Initial board:");
+        }
+        else {
+            System.out.println("Move " + replay.getPosition() + ": (" + Move.row(move) + ", " + Move.column(move) + ") "
+                    + Move.newValue(move));
+        }
+        renderer.printBoard(replay.getBoard());
     }
 
     /**
-     * Picks a random empty cell from the board and fills it in with the correct value
+     * Fills in the next cell that can be worked out logically with the correct value
      */
     private static void fillClue() {
-        // get all empty cells
-        String[] emptyCells = board.getEmptyCells();
-        // count non-zero coordinates
-        int cellCounter = 0;
-        for(String cell : emptyCells) {
-            if(cell != null && !cell.isEmpty()) {
-                cellCounter++;
-            }
-        }
-        // pick a random cell
-        Random rand = new Random();
-        int cell = rand.nextInt(1, cellCounter);
-        String coordinates = emptyCells[cell - 1];
-        String[] split = coordinates.split("");
-        int row = Integer.parseInt(split[0]);
-        int column = Integer.parseInt(split[1]);
-
-        // get the right value for the cell picked
-        int value = board.getCorrectValue(row, column);
-        board.insertValue(row + 1, column + 1, value);
-        cluesUsed++;
-        String move = String.valueOf(row + 1) + String.valueOf(column + 1) + String.valueOf(0) + String.valueOf(value);
-        movesQueue.add(move);
-        saveUpToDate = false;
-        board.printBoard();
-        printCommands();
-        System.out.println("Clue filled at " + (row + 1) + ", " + (column + 1));
+        int cell = session.fillClue();
+        if(cell == -1) {
+            System.out.println("There are no empty cells left. Check your values.");
+            return;
+        }
+        renderer.printBoard(board.getBoard());
+        renderer.printCommands(session.getCluesUsed());
+        String message = "Clue filled at " + (cell / board.getSize() + 1) + ", " + (cell % board.getSize() + 1);
+        // tell the player how the cell could have been found
+        Technique technique = board.getHints().getTechnique();
+        if(technique != null) {
+            message += " (found with: " + technique.getName() + ")";
+        }
+        System.out.println(message);
     }
 
     /**
      * Counts how many of each value there are already in the board and displays it in the console
      */
     private static void displayNumbersInBoard() {
-        int[] numbers = board.countNumbersInBoard();
+        DigitHistogram numbers = board.getDigitCounts();
         System.out.println("Values currently in the board: ");
-        int total = 0;
-        for(int i = 0; i < numbers.length; i++) {
-            System.out.println((i + 1) + " - " + numbers[i] + "/9");
-            total += numbers[i];
+        int size = board.getSize();
+        for(int value = 1; value <= size; value++) {
+            System.out.println(value + " - " + numbers.count(value) + "/" + size);
         }
-        System.out.println("Total: " + total + "/81");
-        printCommands();
+        System.out.println("Total: " + numbers.filledCells() + "/" + size * size);
+        renderer.printCommands(session.getCluesUsed());
     }
 
     /**
@@ -725,15 +797,10 @@ public class GameLogic {
         }
         // if confirmed, start over
         if(startOver) {
-            board.startOver();
-            moves = new Stack<>();
-            undoneMoves = new Stack<>();
-            movesQueue = new LinkedList<>();
-            cluesUsed = 0;
-            saveUpToDate = false;
+            session.startOver();
             System.out.println("Starting over...");
-            board.printBoard();
-            printCommands();
+            renderer.printBoard(board.getBoard());
+            renderer.printCommands(session.getCluesUsed());
         }
     }
 
@@ -741,207 +808,17 @@ public class GameLogic {
      * Saves a game to a file so that it can later be read
      */
     private static void saveGame() {
-        // check if the latest progress has been saved
-        if(saveUpToDate) {
-            System.out.println("Progress already saved.");
-        }
-        // if not, save it
-        else {
-            try {
-                if(!save.exists()){
-                    save.createNewFile();
-                }
-                // check if the file contains some saved data already - if so, overwrite it with the first line and then keep appending
-                BufferedWriter writer;
-                if(save.length() != 0) {
-                    writer = new BufferedWriter(new FileWriter(save));
-                    writer.write(board.originalToString());
-                    writer.close();
-                    writer = new BufferedWriter(new FileWriter(save, true));
-                    writer.newLine();
-                }
-                else {
-                    writer = new BufferedWriter(new FileWriter(save, true));
-                    writer.write(board.originalToString());
-                    writer.newLine();
-                }
-                // get the data
-                ArrayList<String> output = new ArrayList<>();
-                output.add(board.initialToString());
-                output.add(board.boardToString());
-                output.add(movesToString());
-                output.add(undoneMovesToString());
-                output.add(movesQueueToString());
-                output.add(String.valueOf(cluesUsed));
-
-                // write to the file
-                for(String line : output) {
-                    writer.write(line);
-                    writer.newLine();
-                }
-                writer.close();
-                System.out.println("Game saved successfully");
-                saveUpToDate = true;
-            }
-            catch (Exception ex) {
-                System.out.println("Could not save the game");
-            }
-        }
-    }
-
-    /**
-     * Creates a saves directory in the file system and a save file for the game instance
-     */
-    private static void createSaveFile() {
         try {
-            // if saves directory doesn't exist, create it
-            File directory = new File(".\\saves");
-            if (!directory.exists()){
-                directory.mkdirs();
-            }
-            DateTimeFormatter formatDate = DateTimeFormatter.ofPattern("ddMMyyyy_HHmm");
-            String formattedDate = LocalDateTime.now().format(formatDate);
-            String filename = formattedDate + "_" + difficultyLevel + ".txt";
-
-            save = new File(".\\saves\\" + filename);
-        }
-        catch (Exception ex) {
-            System.out.println("There was an error creating a save file");
-        }
-    }
-
-    /**
-     * Converts the moves stack to a string. Helper for saveGame().
-     * @return  String with moves delimited by spaces
-     */
-    private static String movesToString() {
-        String string = "";
-        Iterator<String> move = moves.iterator();
-
-        while (move.hasNext()) {
-            string += move.next();
-            string += " ";
-        }
-        return string;
-    }
-
-    /**
-     * Converts the undone moves stack to a string. Helper for saveGame().
-     * @return  String with undone moves delimited by spaces
-     */
-    private static String undoneMovesToString() {
-        String string = "";
-        Iterator<String> move = undoneMoves.iterator();
-
-        while (move.hasNext()) {
-            string += move.next();
-            string += " ";
-        }
-        return string;
-    }
-
-    /**
-     * Converts the moves queue to a string. Helper for saveGame().
-     * @return  String with moves delimited by spaces
-     */
-    private static String movesQueueToString() {
-        String string = "";
-        Iterator<String> move = movesQueue.iterator();
-
-        while (move.hasNext()) {
-            string += move.next();
-            string += " ";
-        }
-        return string;
-    }
-
-    /**
-     * Reads in the help file and prints it to the console
-     */
-    private static void printHelp() {
-        try {
-            BufferedReader br = new BufferedReader(new FileReader("help.txt"));
-            String line;
-            while ((line = br.readLine()) != null) {
-                System.out.println(line);
+            // check if the latest progress has been saved, if not, save it
+            if(session.save()) {
+                System.out.println("Game saved successfully");
             }
-        }
-        catch (Exception ex) {
-            System.out.println("Could not print help instructions");
-        }
-        printCommands();
-    }
-
-    /**
-     * Prints the menu of game options
-     */
-    private static void printCommands() {
-        String divider = "-----------------------------------------------------------------------";
-        System.out.println(divider);
-        try {
-            BufferedReader br = new BufferedReader(new FileReader("commands.txt"));
-            String line;
-            while ((line = br.readLine()) != null) {
-                System.out.println(line);
+            else {
+                System.out.println("Progress already saved.");
             }
         }
         catch (Exception ex) {
-            System.out.println("Could not print commands");
-        }
-        System.out.println(divider);
-        if(cluesUsed < 3) {
-            System.out.println("Clues available: " + (3 - cluesUsed) + "/3");
-        }
-        else {
-            System.out.println("No clues available");
-        }
-    }
-
-    /**
-     * Prints the playing board to the console. Copy of the Board.printBoard() function to print intermediate boards
-     * when replaying all the moves.
-     * @param board int[][] to print
-     */
-    private static void printBoard(int[][] board) {
-        int rowsCounter = 1;
-        // print columns numbering
-        String columnNumbering = "       1 2 3   4 5 6   7 8 9 \n\n";
-        System.out.print(columnNumbering);
-
-        // print the grid
-        for (int i = 0; i < board.length; i++) {
-            if(i % 3 == 0 && i != 0) {
-                System.out.print("\n");
-            }
-            System.out.print(rowsCounter++ + "    ");  // print row number
-
-            for (int j = 0; j < board.length; j++) {
-                if(j % 3 == 0) {
-                    System.out.print("| ");
-                }
-                if(board[i][j] == 0) {
-                    System.out.print("_ ");
-                }
-                else {
-                    System.out.print(board[i][j] + " ");
-                }
-            }
-            System.out.print("|\n");
+            System.out.println("Could not save the game");
         }
     }
-
-    /**
-     * Helper function used in replaying all moves
-     * @param board int[][] - board where the moves will be reflected
-     * @param move  move to play out
-     */
-    private static void makeMove(int[][] board, String move) {
-        String[] values = move.split("");
-        int row = Integer.parseInt(values[0]);
-        int column = Integer.parseInt(values[1]);
-        int newValue = Integer.parseInt(values[3]);
-
-        board[row - 1][column - 1] = newValue;
-        printBoard(board);
-    }
 }
@@ -0,0 +1,477 @@
+package com.napier.sudoku;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Game server on localhost speaking a line-based protocol over TCP. Every connection plays its own GameSession,
+ * so one JVM can host any number of players. Connections are served on virtual threads where the JVM has them
+ * (Java 21 and later) and on a thread per connection otherwise.
+ * Requests are single lines of space-separated words, and every request gets a single line back, starting with
+ * OK or ERR. Boards are sent in the compact format (one character per cell, 0 for empty, A-P above 9).
+ *   NEW level [boxSize]    start a game (easy, medium or hard; box size 2-5, 3 by default, 2 only for easy)
+ *   LIST [page]            list saves, 10 per page, as id:level:filledCells:score
+ *   LOAD id                load a save
+ *   B                      show the board
+ *   V row column value     enter a value (0 clears the cell)
+ *   U, R                   undo or redo a move
+ *   M [move]               replay the moves up to a move (all moves by default)
+ *   O                      start over
+ *   C                      fill in a clue
+ *   D                      count each value
+ *   S                      save
+ *   E                      end the connection
+ * Usage: GameServer [port] [savesDirectory]
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class GameServer implements Closeable {
+    public static final int DEFAULT_PORT = 4949;
+    private static final int SAVES_PER_PAGE = 10;
+    private static final int BACKLOG = 1024;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor;
+    private final Path directory;
+    private final SaveCatalog catalog;
+    private final PuzzlePool puzzlePool;
+    private final boolean journaledSaves;
+    private final SessionStore sessions;
+    private final AtomicInteger connections;
+
+    /**
+     * Constructor - opens the server socket, the catalog of saves and the puzzle pool
+     * @param port  port to listen on, 0 for any free port
+     * @param directory directory with the saves
+     */
+    public GameServer(int port, Path directory) throws IOException {
+        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        this.executor = newExecutor();
+        this.directory = directory;
+        this.catalog = new SaveCatalog(directory);
+        this.puzzlePool = new PuzzlePool(Integer.getInteger("sudoku.pool.capacity", 64),
+                Integer.getInteger("sudoku.pool.lowWater", 32), directory.resolveSibling("pool.txt"));
+        this.journaledSaves = Boolean.parseBoolean(System.getProperty("sudoku.journal", "true"));
+        this.sessions = new SessionStore(Long.getLong("sudoku.sessions.memoryBudget", SessionStore.DEFAULT_MEMORY_BUDGET),
+                catalog, journaledSaves);
+        this.connections = new AtomicInteger();
+    }
+
+    /**
+     * Driver code
+     */
+    public static void main(String[] args) {
+        int port;
+        try {
+            port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        }
+        catch (NumberFormatException ex) {
+            System.out.println("Usage: GameServer [port] [savesDirectory]");
+            return;
+        }
+        Path directory = Paths.get(args.length > 1 ? args[1] : "saves");
+        // counters and histograms can be read over JMX, and printed every few seconds if asked for
+        Metrics.register();
+        long dumpSeconds = Long.getLong("sudoku.metrics.dumpSeconds", 0);
+        if(dumpSeconds > 0) {
+            Metrics.startDump(System.out, dumpSeconds);
+        }
+        try (GameServer server = new GameServer(port, directory)) {
+            System.out.println("Sudoku server listening on localhost:" + server.getPort());
+            server.serve();
+        }
+        catch (IOException ex) {
+            System.out.println("Server stopped: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Accepts connections until the server is closed
+     */
+    public void serve() throws IOException {
+        puzzlePool.start();
+        while(!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            }
+            catch (IOException ex) {
+                if(serverSocket.isClosed()) {
+                    return;
+                }
+                throw ex;
+            }
+            executor.execute(() -> handle(socket));
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of connections being served
+     * @return  open connections
+     */
+    public int getConnections() {
+        return connections.get();
+    }
+
+    public SessionStore getSessions() {
+        return sessions;
+    }
+
+    /**
+     * Stops accepting connections, ends the open ones and keeps the remaining pool boards for the next start
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+        puzzlePool.stop();
+    }
+
+    /**
+     * Creates the executor serving connections - one virtual thread per connection if the JVM has virtual threads,
+     * otherwise one daemon thread per connection
+     * @return  executor for connections
+     */
+    static ExecutorService newExecutor() {
+        try {
+            // looked up at runtime so the server still builds and runs on Java 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException ex) {
+            AtomicInteger threads = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "sudoku-connection-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Serves one connection until the client ends it or disconnects
+     * @param socket    connection to serve
+     */
+    private void handle(Socket socket) {
+        connections.incrementAndGet();
+        Connection connection = new Connection();
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while((line = in.readLine()) != null) {
+                String response = connection.execute(line.trim());
+                out.write(response);
+                out.write('\n');
+                out.flush();
+                if(connection.ended) {
+                    break;
+                }
+            }
+        }
+        catch (IOException ex) {
+            // the client went away - nothing to answer
+        }
+        finally {
+            connection.endGame();
+            connections.decrementAndGet();
+        }
+    }
+
+    /**
+     * Takes a 9x9 board from the pool, or generates a board of another size
+     * @param difficulty    level of difficulty
+     * @param boxSize   size of a box of the board
+     * @return  ready-to-play board
+     */
+    private Board newBoard(Difficulty difficulty, int boxSize) {
+        if(boxSize == CandidateGrid.DEFAULT_BOX_SIZE) {
+            return puzzlePool.take(difficulty);
+        }
+        Board generated = new Board(boxSize, new Random());
+        generated.generate(difficulty);
+        return generated;
+    }
+
+    /**
+     * State of one connection - the game it plays and a buffer for sending boards.
+     * The session of the game is acquired from the store for every request, so that it can be passivated in between.
+     */
+    private class Connection {
+        private String id;  // id of the session in the store, null before a game is started or loaded
+        private char[] text = new char[0];
+        private boolean ended;
+
+        /**
+         * Carries out one request
+         * @param request   request line
+         * @return  response line
+         */
+        String execute(String request) {
+            String[] words = request.split("\\s+");
+            String command = words[0].toUpperCase();
+            try {
+                switch (command) {
+                    case "NEW":
+                        return newGame(words);
+                    case "LIST": {
+                        int page = words.length > 1 ? Integer.parseInt(words[1]) : 0;
+                        return page < 0 ? "ERR page must be 0 or more" : list(page);
+                    }
+                    case "LOAD":
+                        return load(words);
+                    case "E", "QUIT":
+                        ended = true;
+                        return "OK bye";
+                    case "":
+                        return "ERR empty request";
+                    default:
+                        break;
+                }
+                if(id == null) {
+                    return "ERR no game - use NEW or LOAD first";
+                }
+                GameSession session = sessions.acquire(id);
+                if(session == null) {
+                    // the session left the store, e.g. removed by another connection's endGame
+                    id = null;
+                    return "ERR no game - use NEW or LOAD first";
+                }
+                try {
+                    return play(session, command, words);
+                }
+                finally {
+                    sessions.release(id);
+                }
+            }
+            catch (NumberFormatException ex) {
+                return "ERR numbers expected";
+            }
+            catch (IOException ex) {
+                return "ERR " + ex.getMessage();
+            }
+            catch (RuntimeException ex) {
+                // a bad request must never drop the connection
+                return "ERR " + ex;
+            }
+        }
+
+        /**
+         * Carries out a request for the game being played
+         * @param session   session of the game
+         * @param command   command in upper case
+         * @param words words of the request
+         * @return  response line
+         */
+        private String play(GameSession session, String command, String[] words) throws IOException {
+            Board board = session.getBoard();
+            switch (command) {
+                case "B":
+                    return state(session, "OK");
+                case "V": {
+                    if(words.length != 4) {
+                        return "ERR usage: V row column value";
+                    }
+                    int row = Integer.parseInt(words[1]);
+                    int column = Integer.parseInt(words[2]);
+                    int value = Integer.parseInt(words[3]);
+                    int size = board.getSize();
+                    if(row < 1 || row > size || column < 1 || column > size || value < 0 || value > size) {
+                        return "ERR out of range 1-" + size;
+                    }
+                    if(session.insertValue(row, column, value) == -1) {
+                        return "ERR given cell";
+                    }
+                    return state(session, "OK conflicts=" + board.getConflicts().getFlags());
+                }
+                case "U":
+                    return session.undo() == -1 ? "ERR no moves to undo" : state(session, "OK");
+                case "R":
+                    return session.redo() == -1 ? "ERR no moves to redo" : state(session, "OK");
+                case "M": {
+                    ReplayEngine replay = session.replay();
+                    if(replay == null) {
+                        return "ERR no moves to replay";
+                    }
+                    int move = words.length > 1 ? Integer.parseInt(words[1]) : replay.getMoveCount();
+                    if(move < 0 || move > replay.getMoveCount()) {
+                        return "ERR move out of range 0-" + replay.getMoveCount();
+                    }
+                    replay.seek(move);
+                    return "OK move=" + move + "/" + replay.getMoveCount() + " board=" + encode(replay.getBoard());
+                }
+                case "O":
+                    session.startOver();
+                    return state(session, "OK");
+                case "C": {
+                    if(session.getCluesUsed() >= GameSession.MAX_CLUES) {
+                        return "ERR all clues used";
+                    }
+                    int cell = session.fillClue();
+                    if(cell == -1) {
+                        return "ERR no empty cells";
+                    }
+                    Technique technique = board.getHints().getTechnique();
+                    return state(session, "OK clue=" + (cell / board.getSize() + 1) + "," + (cell % board.getSize() + 1)
+                            + " technique=" + (technique == null ? "none" : technique.name()));
+                }
+                case "D": {
+                    DigitHistogram numbers = board.getDigitCounts();
+                    StringBuilder response = new StringBuilder("OK counts=");
+                    for(int value = 1; value <= board.getSize(); value++) {
+                        response.append(value == 1 ? "" : ",").append(numbers.count(value));
+                    }
+                    return response.append(" filled=").append(numbers.filledCells()).toString();
+                }
+                case "S":
+                    return session.save() ? "OK saved" : "OK already saved";
+                default:
+                    return "ERR unknown command " + command;
+            }
+        }
+
+        /**
+         * Starts a new game
+         * @param words words of the request
+         * @return  response line
+         */
+        private String newGame(String[] words) throws IOException {
+            Difficulty difficulty = null;
+            for(Difficulty level : Difficulty.values()) {
+                if(words.length > 1 && level.getName().equalsIgnoreCase(words[1])) {
+                    difficulty = level;
+                }
+            }
+            if(difficulty == null) {
+                return "ERR usage: NEW easy|medium|hard [boxSize]";
+            }
+            int boxSize = words.length > 2 ? Integer.parseInt(words[2]) : CandidateGrid.DEFAULT_BOX_SIZE;
+            if(boxSize < CandidateGrid.MIN_BOX_SIZE || boxSize > CandidateGrid.MAX_BOX_SIZE) {
+                return "ERR box size must be between " + CandidateGrid.MIN_BOX_SIZE + " and " + CandidateGrid.MAX_BOX_SIZE;
+            }
+            if(!difficulty.isAvailable(boxSize)) {
+                return "ERR no " + difficulty.getName() + " boards of box size " + boxSize + ", only easy ones";
+            }
+            GameSession session = GameSession.start(newBoard(difficulty, boxSize), difficulty, directory, catalog,
+                    journaledSaves);
+            return startPlaying(session);
+        }
+
+        /**
+         * Loads a saved game
+         * @param words words of the request
+         * @return  response line
+         */
+        private String load(String[] words) throws IOException {
+            SaveCatalog.Entry entry = words.length > 1 ? catalog.get(words[1]) : null;
+            if(entry == null) {
+                return "ERR no such save";
+            }
+            // reserve the save first, so that no other connection opens it (and recovers its journal) meanwhile
+            if(!sessions.reserve(entry.getId())) {
+                return "ERR game already being played";
+            }
+            GameSession session;
+            try {
+                session = GameSession.load(entry, catalog, journaledSaves);
+            }
+            catch (IOException | RuntimeException ex) {
+                sessions.cancel(entry.getId());
+                throw ex;
+            }
+            return startPlaying(session);
+        }
+
+        /**
+         * Switches the connection to a new session, dropping the unsaved progress of the previous game once the
+         * new one is in the store
+         * @param session   session to play
+         * @return  response line
+         */
+        private String startPlaying(GameSession session) throws IOException {
+            String added = sessions.add(session);
+            if(added == null) {
+                // the previous game is still being played
+                return "ERR game already being played";
+            }
+            endGame();
+            id = added;
+            try {
+                return state(session, "OK id=" + id + " size=" + session.getBoard().getSize());
+            }
+            finally {
+                sessions.release(id);
+            }
+        }
+
+        /**
+         * Removes the session of the game being played from the store
+         */
+        void endGame() {
+            if(id == null) {
+                return;
+            }
+            try {
+                sessions.remove(id);
+            }
+            catch (IOException ex) {
+                // only the passivated progress could be left behind
+            }
+            id = null;
+        }
+
+        /**
+         * Lists one page of saves, most recently saved first
+         * @param page  page number, starting from 0
+         * @return  response line
+         */
+        private String list(int page) {
+            List<SaveCatalog.Entry> entries = catalog.query(SaveCatalog.SortKey.UPDATED, page, SAVES_PER_PAGE);
+            StringBuilder response = new StringBuilder("OK total=").append(catalog.size());
+            for(SaveCatalog.Entry entry : entries) {
+                response.append(' ').append(entry.getId()).append(':').append(entry.getLevel()).append(':')
+                        .append(entry.getFilledCells()).append(':').append(entry.getScore());
+            }
+            return response.toString();
+        }
+
+        /**
+         * Adds the state of the game to a response
+         * @param session   session of the game
+         * @param prefix    start of the response
+         * @return  response line
+         */
+        private String state(GameSession session, String prefix) {
+            Board board = session.getBoard();
+            // not isSolved(), which counts as a solved check in the metrics
+            return prefix + " clues=" + session.getCluesUsed() + " solved=" + board.checkCompleteBoard()
+                    + " board=" + encode(board.getBoard());
+        }
+
+        /**
+         * Converts a board to the compact format, reusing the connection's buffer
+         * @param grid  board to convert
+         * @return  compact text of the board
+         */
+        private String encode(int[][] grid) {
+            int cells = grid.length * grid.length;
+            if(text.length < cells) {
+                text = new char[cells];
+            }
+            return new String(text, 0, BoardCodec.encodeCompact(grid, text, 0));
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.napier.sudoku;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * State of one game being played - the board, the moves, the clues used and the save it's stored in.
+ * Sessions don't read or print anything, so the console game and the game server can both drive them.
+ * A session is meant to be used by one thread at a time; different sessions can be used in parallel.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class GameSession {
+    public static final int MAX_CLUES = 3;
+    private static final long BASE_BYTES = 8192;    // session, board and hint engine objects of any size
+    private static final int BYTES_PER_CELL_VALUE = 12; // candidate masks and solver arrays grow with cells * values
+
+    private final Board board;
+    private final MoveStack moves;
+    private final MoveStack undoneMoves;
+    private final MoveDeque movesQueue;
+    private final String difficultyLevel;
+    private final SaveCatalog catalog;
+    private final boolean journaledSaves;
+    private int cluesUsed;
+    private boolean saveUpToDate;
+    private boolean solved; // true once the board has been solved, so that the game is only counted once
+    private File save;
+    private long saveCreated;
+    private MoveJournal journal;
+
+    /**
+     * Constructor
+     * @param data  board, moves and clues of the game
+     * @param difficultyLevel   level of difficulty
+     * @param catalog   catalog the save is listed in, null if there is none
+     * @param journaledSaves    true to append moves to the save's journal, false to rewrite the save every time
+     */
+    private GameSession(SaveData data, String difficultyLevel, SaveCatalog catalog, boolean journaledSaves) {
+        this.board = data.getBoard();
+        this.moves = data.getMoves();
+        this.undoneMoves = data.getUndoneMoves();
+        this.movesQueue = data.getMovesQueue();
+        this.cluesUsed = data.getCluesUsed();
+        this.difficultyLevel = difficultyLevel;
+        this.catalog = catalog;
+        this.journaledSaves = journaledSaves;
+        this.saveUpToDate = true;
+        this.solved = board.checkCompleteBoard();
+        // a board being played is never generated or graded again
+        board.releaseGenerator();
+    }
+
+    /**
+     * Starts a new game on a ready-to-play board and creates its save file
+     * @param board board to play
+     * @param difficulty    level of difficulty of the board
+     * @param directory directory to create the save in
+     * @param catalog   catalog to list the save in, null if there is none
+     * @param journaledSaves    true to append moves to the save's journal, false to rewrite the save every time
+     * @return  new session
+     */
+    public static GameSession start(Board board, Difficulty difficulty, Path directory, SaveCatalog catalog,
+                                    boolean journaledSaves) throws IOException {
+        SaveData data = new SaveData(board, new MoveStack(), new MoveStack(), new MoveDeque(), 0);
+        GameSession session = new GameSession(data, difficulty.getName(), catalog, journaledSaves);
+        session.createSaveFile(directory);
+        return session;
+    }
+
+    /**
+     * Loads a game from a save in the catalog
+     * @param entry catalog entry of the save
+     * @param catalog   catalog the save is listed in
+     * @param journaledSaves    true to append moves to the save's journal, false to rewrite the save every time
+     * @return  loaded session
+     */
+    public static GameSession load(SaveCatalog.Entry entry, SaveCatalog catalog, boolean journaledSaves)
+            throws IOException {
+        return open(catalog.resolve(entry), entry.getLevel(), entry.getCreated(), null, catalog, journaledSaves);
+    }
+
+    /**
+     * Opens a game from its save, or from a passivated copy holding progress that wasn't saved yet
+     * @param saveFile  save file of the game
+     * @param difficultyLevel   level of difficulty
+     * @param created   time the save was created, in milliseconds since the epoch
+     * @param passivated    file the session was passivated to, null to read the save itself
+     * @param catalog   catalog the save is listed in, null if there is none
+     * @param journaledSaves    true to append moves to the save's journal, false to rewrite the save every time
+     * @return  opened session
+     */
+    static GameSession open(Path saveFile, String difficultyLevel, long created, Path passivated, SaveCatalog catalog,
+                            boolean journaledSaves) throws IOException {
+        long start = System.nanoTime();
+        MoveJournal journal = new MoveJournal(saveFile);
+        SaveData data;
+        if(passivated == null) {
+            // read in the save - both binary and old text saves are supported
+            data = SaveCodec.read(saveFile);
+            // apply the moves appended since the last snapshot
+            journal.recover(data);
+        }
+        else {
+            // the passivated copy is newer than the save, so the next save writes a new snapshot
+            data = SaveCodec.read(passivated);
+        }
+
+        GameSession session = new GameSession(data, difficultyLevel, catalog, journaledSaves);
+        session.save = saveFile.toFile();
+        session.saveCreated = created;
+        session.journal = journal;
+        session.saveUpToDate = passivated == null;
+        Metrics.LOAD_TIME.record(System.nanoTime() - start);
+        return session;
+    }
+
+    /**
+     * Inserts a value into the board and records the move. What was found wrong with the value
+     * can be read from the board's getConflicts() afterwards.
+     * @param row   row (from 1)
+     * @param column    column (from 1)
+     * @param value value to enter, 0 to clear the cell
+     * @return  value initially in the cell, or -1 if the cell is a given
+     */
+    public int insertValue(int row, int column, int value) {
+        int initialValue = board.insertValue(row, column, value);
+        if(initialValue != -1) {
+            // push the move onto the moves stack and store in the moves queue
+            int move = Move.of(row, column, initialValue, value);
+            moves.push(move);
+            movesQueue.addLast(move);
+            record(MoveJournal.VALUE, move);
+            saveUpToDate = false;
+            Metrics.MOVES.increment();
+            checkSolved();
+        }
+        return initialValue;
+    }
+
+    /**
+     * Undoes the last move the player made
+     * @return  the reverse of the move undone, or -1 if there are no moves to undo
+     */
+    public int undo() {
+        if(moves.isEmpty()) {
+            return -1;
+        }
+        int lastMove = moves.pop();
+        // check if the reverse of the move is possible
+        if(board.insertValue(Move.row(lastMove), Move.column(lastMove), Move.oldValue(lastMove)) == -1) {
+            return -1;
+        }
+        // new value becomes initial value and vice versa
+        lastMove = Move.reverse(lastMove);
+        undoneMoves.push(lastMove);
+        movesQueue.addLast(lastMove);
+        record(MoveJournal.UNDO, lastMove);
+        saveUpToDate = false;
+        Metrics.UNDOS.increment();
+        checkSolved();
+        return lastMove;
+    }
+
+    /**
+     * Redoes the last undone move
+     * @return  the move redone, or -1 if there are no moves to redo
+     */
+    public int redo() {
+        if(undoneMoves.isEmpty()) {
+            return -1;
+        }
+        int lastMove = undoneMoves.pop();
+        if(board.insertValue(Move.row(lastMove), Move.column(lastMove), Move.oldValue(lastMove)) == -1) {
+            return -1;
+        }
+        lastMove = Move.reverse(lastMove);
+        moves.push(lastMove);
+        movesQueue.addLast(lastMove);
+        record(MoveJournal.REDO, lastMove);
+        saveUpToDate = false;
+        Metrics.REDOS.increment();
+        checkSolved();
+        return lastMove;
+    }
+
+    /**
+     * Starts a replay of all moves from the initial board
+     * @return  replay working on its own copy of the board, or null if no moves were made
+     */
+    public ReplayEngine replay() {
+        if(movesQueue.isEmpty()) {
+            return null;
+        }
+        return new ReplayEngine(board.getInitialBoard(), movesQueue);
+    }
+
+    /**
+     * Fills in the next cell that can be worked out logically with the correct value.
+     * The technique leading to the cell can be read from the board's getHints() afterwards.
+     * @return  cell index (row * size + column) filled in, or -1 if there are no empty cells or no clues left
+     */
+    public int fillClue() {
+        if(cluesUsed >= MAX_CLUES) {
+            return -1;
+        }
+        int cell = board.getHints().next();
+        if(cell == -1) {
+            return -1;
+        }
+        int row = cell / board.getSize();
+        int column = cell % board.getSize();
+
+        // get the right value for the cell picked
+        int value = board.getCorrectValue(row, column);
+        board.insertValue(row + 1, column + 1, value);
+        cluesUsed++;
+        int move = Move.of(row + 1, column + 1, 0, value);
+        movesQueue.addLast(move);
+        record(MoveJournal.CLUE, move);
+        saveUpToDate = false;
+        Metrics.CLUES.increment();
+        checkSolved();
+        return cell;
+    }
+
+    /**
+     * Resets the game progress to the initial board
+     */
+    public void startOver() {
+        board.startOver();
+        moves.clear();
+        undoneMoves.clear();
+        movesQueue.clear();
+        cluesUsed = 0;
+        record(MoveJournal.START_OVER, 0);
+        saveUpToDate = false;
+        solved = false;
+    }
+
+    /**
+     * Saves the game if anything changed since the last save
+     * @return  false if the progress was already saved
+     */
+    public boolean save() throws IOException {
+        if(saveUpToDate) {
+            return false;
+        }
+        long start = System.nanoTime();
+        // write the boards, moves and clues in the binary save format
+        // or only append the moves made since the last save to the journal
+        SaveData data = toSaveData();
+        int written;
+        if(journaledSaves) {
+            written = journal.save(data);
+        }
+        else {
+            written = SaveCodec.write(save.toPath(), data);
+        }
+        updateCatalog();
+        saveUpToDate = true;
+        Metrics.SAVE_TIME.record(System.nanoTime() - start);
+        Metrics.SAVE_BYTES.record(written);
+        return true;
+    }
+
+    /**
+     * Remembers an action for the next journaled save. Saves rewritten in full don't need it.
+     * @param type  action type
+     * @param move  packed move made by the action (0 for START_OVER)
+     */
+    private void record(byte type, int move) {
+        if(journaledSaves) {
+            journal.record(type, move);
+        }
+    }
+
+    /**
+     * Counts the game and the clues it took the first time the board is solved
+     */
+    private void checkSolved() {
+        if(!solved && board.checkCompleteBoard()) {
+            solved = true;
+            Metrics.GAMES_SOLVED.increment();
+            Metrics.CLUES_PER_GAME.record(cluesUsed);
+        }
+    }
+
+    /**
+     * Returns everything stored in a save of this game
+     * @return  save data sharing the board and moves of the session
+     */
+    public SaveData toSaveData() {
+        return new SaveData(board, moves, undoneMoves, movesQueue, cluesUsed);
+    }
+
+    /**
+     * Creates a save file for the game, named after the time and level of the game
+     * @param directory directory to create the save in
+     */
+    private void createSaveFile(Path directory) throws IOException {
+        // if saves directory doesn't exist, create it
+        Files.createDirectories(directory);
+        DateTimeFormatter formatDate = DateTimeFormatter.ofPattern("ddMMyyyy_HHmm");
+        String name = LocalDateTime.now().format(formatDate) + "_" + difficultyLevel;
+        // games started in the same minute get a number after the level
+        Path file = directory.resolve(name + ".sav");
+        for(int copy = 2; ; copy++) {
+            try {
+                Files.createFile(file);
+                break;
+            }
+            catch (FileAlreadyExistsException ex) {
+                file = directory.resolve(name + "_" + copy + ".sav");
+            }
+        }
+        save = file.toFile();
+        saveCreated = System.currentTimeMillis();
+        journal = new MoveJournal(file);
+        // write the initial board straight away so that the save listed in the catalog exists
+        if(journaledSaves) {
+            journal.save(toSaveData());
+        }
+        else {
+            SaveCodec.write(file, toSaveData());
+        }
+        updateCatalog();
+    }
+
+    /**
+     * Records the current state of the game save in the catalog
+     */
+    private void updateCatalog() throws IOException {
+        if(catalog != null) {
+            catalog.put(new SaveCatalog.Entry(save.getName(), difficultyLevel, saveCreated, System.currentTimeMillis(),
+                    board.countFilledCells(), cluesUsed, board.getSize(), board.getScore()));
+        }
+    }
+
+    /**
+     * Estimates the heap used by the session - its board, hint engine and moves.
+     * The sizes were measured on boards of every size and rounded up.
+     * @return  estimated size in bytes
+     */
+    long estimateBytes() {
+        int size = board.getSize();
+        long moveCount = moves.size() + undoneMoves.size() + movesQueue.size();
+        // move arrays grow by doubling, so up to twice the moves are allocated
+        return BASE_BYTES + (long) size * size * size * BYTES_PER_CELL_VALUE + moveCount * Integer.BYTES * 2;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public int getCluesUsed() {
+        return cluesUsed;
+    }
+
+    public boolean isSaveUpToDate() {
+        return saveUpToDate;
+    }
+
+    public String getDifficultyLevel() {
+        return difficultyLevel;
+    }
+
+    public String getSaveName() {
+        return save.getName();
+    }
+
+    public Path getSavePath() {
+        return save.toPath();
+    }
+
+    public long getSaveCreated() {
+        return saveCreated;
+    }
+
+    public MoveDeque getMovesQueue() {
+        return movesQueue;
+    }
+}
@@ -0,0 +1,153 @@
+package com.napier.sudoku;
+
+import java.util.Random;
+
+/**
+ * Finds the next cell of a board that can be worked out logically, together with the technique that leads to it.
+ * The engine keeps a logical solver in step with the playing board: correct values entered by the player are
+ * passed on as they are entered, and deductions are made only when a hint is asked for, so most hints are
+ * answered straight from deductions already made. Taking a correct value back makes the engine start again
+ * from the current board the next time a hint is asked for.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class HintEngine {
+    private final Board board;
+    private final LogicalSolver solver;
+    private final Random rand;
+    private int next;   // position in the solver's fill order before which every cell is filled in the board
+    private boolean outdated;   // true if the solver has to be loaded from the board again
+    private Technique technique;
+
+    /**
+     * Constructor
+     * @param board board to give hints for
+     * @param rand  random number generator used when no cell can be worked out logically
+     */
+    HintEngine(Board board, Random rand) {
+        this.board = board;
+        this.solver = new LogicalSolver(board.getBoxSize());
+        this.rand = rand;
+        this.outdated = true;
+    }
+
+    /**
+     * Finds the next empty cell that can be worked out from the values already in the board.
+     * If the techniques get stuck, a random empty cell is returned instead.
+     * @return  cell index (row * size + column), or -1 if there are no empty cells
+     */
+    public int next() {
+        if(outdated) {
+            reload();
+        }
+        int size = board.getSize();
+        while(true) {
+            // skip the cells the player has already filled in correctly
+            while(next < solver.getFilledCells() && isCorrect(solver.getFilledCell(next), size)) {
+                next++;
+            }
+            for(int i = next; i < solver.getFilledCells(); i++) {
+                int cell = solver.getFilledCell(i);
+                if(board.board[cell / size][cell % size] == 0) {
+                    technique = solver.getTechnique(cell);
+                    return cell;
+                }
+            }
+            if(solver.step() == null) {
+                technique = null;
+                return randomEmptyCell(size);
+            }
+        }
+    }
+
+    /**
+     * Returns the technique that leads to the cell returned by the last call to next()
+     * @return  technique, or null if the cell was picked at random
+     */
+    public Technique getTechnique() {
+        return technique;
+    }
+
+    /**
+     * Passes a change of the playing board on to the solver. Called by Board.insertValue.
+     * @param row   row (from 0)
+     * @param column    column (from 0)
+     * @param oldValue  value in the cell before the change
+     * @param newValue  value in the cell after the change
+     */
+    void update(int row, int column, int oldValue, int newValue) {
+        if(outdated) {
+            return;
+        }
+        int correct = board.getCorrectValue(row, column);
+        int cell = row * board.getSize() + column;
+        if(oldValue == correct && solver.getValue(row, column) != 0 && solver.getTechnique(cell) == null) {
+            // deductions may have relied on the value taken back
+            outdated = true;
+        }
+        else if(newValue == correct && solver.getValue(row, column) == 0) {
+            solver.enter(row, column, newValue);
+        }
+    }
+
+    /**
+     * Makes the engine start again from the playing board the next time a hint is asked for
+     */
+    void invalidate() {
+        outdated = true;
+    }
+
+    /**
+     * Loads the givens and the correct values of the playing board into the solver
+     */
+    private void reload() {
+        solver.load(board.initialBoard);
+        int size = board.getSize();
+        for(int row = 0; row < size; row++) {
+            for(int column = 0; column < size; column++) {
+                int value = board.board[row][column];
+                if(value != 0 && board.initialBoard[row][column] == 0 && value == board.getCorrectValue(row, column)) {
+                    solver.enter(row, column, value);
+                }
+            }
+        }
+        next = 0;
+        outdated = false;
+    }
+
+    /**
+     * Checks if the player has filled in a cell correctly
+     * @param cell  cell index
+     * @param size  number of rows of the board
+     * @return  true if the cell holds its correct value
+     */
+    private boolean isCorrect(int cell, int size) {
+        int row = cell / size;
+        int column = cell % size;
+        return board.board[row][column] == board.getCorrectValue(row, column);
+    }
+
+    /**
+     * Picks one of the empty cells of the playing board, every one with the same chance
+     * @param size  number of rows of the board
+     * @return  cell index, or -1 if there are no empty cells
+     */
+    private int randomEmptyCell(int size) {
+        int emptyCount = 0;
+        for(int cell = 0; cell < size * size; cell++) {
+            if(board.board[cell / size][cell % size] == 0) {
+                emptyCount++;
+            }
+        }
+        if(emptyCount == 0) {
+            return -1;
+        }
+        int pick = rand.nextInt(emptyCount);
+        for(int cell = 0; cell < size * size; cell++) {
+            if(board.board[cell / size][cell % size] == 0 && pick-- == 0) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+}
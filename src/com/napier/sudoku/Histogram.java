@@ -0,0 +1,110 @@
+package com.napier.sudoku;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of non-negative values (latencies, sizes, counts) in buckets growing by powers of 2.
+ * Bucket 0 holds the value 0 and bucket i the values from 2^(i-1) to 2^i - 1, so percentiles are accurate to
+ * within a factor of 2. Recording is lock-free and never allocates, so it can be left on in the hot path.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class Histogram implements HistogramMXBean {
+    private static final int BUCKETS = 64;
+
+    private final String name;
+    private final String unit;
+    private final AtomicLongArray buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final LongAccumulator max;
+
+    /**
+     * Constructor
+     * @param name  name of the histogram
+     * @param unit  unit of the values, shown in dumps
+     */
+    public Histogram(String name, String unit) {
+        this.name = name;
+        this.unit = unit;
+        this.buckets = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Records a value, treating negative values as 0
+     * @param value value to record
+     */
+    public void record(long value) {
+        value = Math.max(value, 0);
+        buckets.incrementAndGet(Math.min(BUCKETS - Long.numberOfLeadingZeros(value), BUCKETS - 1));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Returns the value below which a share of the recorded values falls, rounded up to a power of 2
+     * @param quantile  share of the values (0-1)
+     * @return  upper bound of the bucket holding the quantile, 0 if nothing was recorded
+     */
+    public long getPercentile(double quantile) {
+        long total = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+            total += buckets.get(i);
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if(seen >= rank && seen > 0) {
+                // the largest value of bucket i, but never above the largest value recorded
+                return Math.min(i == 0 ? 0 : (1L << i) - 1, getMax());
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getSum() {
+        return sum.sum();
+    }
+
+    @Override
+    public long getMax() {
+        return max.get();
+    }
+
+    @Override
+    public double getMean() {
+        long values = count.sum();
+        return values == 0 ? 0 : (double) sum.sum() / values;
+    }
+
+    @Override
+    public long getMedian() {
+        return getPercentile(0.5);
+    }
+
+    @Override
+    public long getPercentile99() {
+        return getPercentile(0.99);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+}
@@ -0,0 +1,44 @@
+package com.napier.sudoku;
+
+/**
+ * Management interface of a histogram, exposed over JMX
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public interface HistogramMXBean {
+    /**
+     * Returns the number of values recorded
+     * @return  count of values
+     */
+    long getCount();
+
+    /**
+     * Returns the sum of the values recorded
+     * @return  total of all values
+     */
+    long getSum();
+
+    /**
+     * Returns the largest value recorded
+     * @return  maximum, 0 if nothing was recorded
+     */
+    long getMax();
+
+    /**
+     * Returns the mean of the values recorded
+     * @return  mean, 0 if nothing was recorded
+     */
+    double getMean();
+
+    /**
+     * Returns the median, rounded up to a power of 2
+     * @return  upper bound of the median
+     */
+    long getMedian();
+
+    /**
+     * Returns the 99th percentile, rounded up to a power of 2
+     * @return  upper bound of the 99th percentile
+     */
+    long getPercentile99();
+}
@@ -0,0 +1,629 @@
+package com.napier.sudoku;
+
+/**
+ * Solves boards the way a person would, without guessing. Candidates are kept for every cell and updated
+ * whenever a value is placed or ruled out, and the techniques are tried from the simplest to the hardest,
+ * going back to the simplest after every deduction.
+ * The solver records how many times each technique was needed and which technique led to each value it placed,
+ * and values known from elsewhere can be entered between steps. All state is allocated once, so one instance
+ * can solve any number of boards of its size without allocating.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class LogicalSolver {
+    private static final Technique[] TECHNIQUES = Technique.values();
+
+    private final CandidateGrid.Layout layout;
+    private final int size;
+    private final int cells;
+    private final int[][] units;
+    private final int[] values;     // value of each cell, 0 for empty
+    private final int[] candidates; // bitmask of possible values of each empty cell, 0 once filled
+    private final int[] positions;  // scratch - for each value, bitmask of the unit positions it can go to
+    private final int[] subset;     // scratch - unit positions or lines taking part in a subset or fish
+    private final int[] uses;       // number of deductions made with each technique
+    private final int[] order;      // cells in the order they were filled
+    private final int[] placedBy;   // technique that led to the value of each cell, -1 for givens and entered values
+    private int filled;
+    private boolean contradiction;
+    private int current;    // technique being applied, -1 outside of step()
+    private int pending;    // hardest technique that only ruled candidates out since the last value was placed
+    private int techniques; // number of techniques step() may use, from the simplest
+
+    /**
+     * Constructor
+     * @param boxSize   size of a box of the boards to solve (3 for 9x9)
+     */
+    public LogicalSolver(int boxSize) {
+        this.layout = CandidateGrid.layout(boxSize);
+        this.size = layout.size;
+        this.cells = layout.cells;
+        this.units = layout.units;
+        this.values = new int[cells];
+        this.candidates = new int[cells];
+        this.positions = new int[size];
+        this.subset = new int[size];
+        this.uses = new int[TECHNIQUES.length];
+        this.order = new int[cells];
+        this.placedBy = new int[cells];
+        this.current = -1;
+        this.techniques = TECHNIQUES.length;
+    }
+
+    /**
+     * Solves a board as far as the techniques allow. The board itself is not changed.
+     * @param grid  board to solve (0 for empty cells)
+     * @return  true if the board was solved completely
+     */
+    public boolean solve(int[][] grid) {
+        return solve(grid, TECHNIQUES[TECHNIQUES.length - 1]);
+    }
+
+    /**
+     * Solves a board as far as the techniques up to a given one allow, e.g. only with singles for a quick
+     * check that a board has one solution. The board itself is not changed.
+     * @param grid  board to solve (0 for empty cells)
+     * @param hardest   hardest technique to use
+     * @return  true if the board was solved completely
+     */
+    public boolean solve(int[][] grid, Technique hardest) {
+        load(grid);
+        techniques = hardest.ordinal() + 1;
+        while(step() != null) {
+            // keep deducing until solved or stuck
+        }
+        techniques = TECHNIQUES.length;
+        return isSolved();
+    }
+
+    /**
+     * Loads a board and works out the candidates of every cell
+     * @param grid  board to load (0 for empty cells)
+     */
+    public void load(int[][] grid) {
+        filled = 0;
+        contradiction = false;
+        pending = -1;
+        for(int i = 0; i < uses.length; i++) {
+            uses[i] = 0;
+        }
+        for(int cell = 0; cell < cells; cell++) {
+            values[cell] = 0;
+            candidates[cell] = layout.allValues;
+        }
+        for(int cell = 0; cell < cells; cell++) {
+            int value = grid[layout.rowOf[cell]][layout.columnOf[cell]];
+            if(value != 0) {
+                // a given repeated in a unit can never be solved
+                if((candidates[cell] & (1 << (value - 1))) == 0) {
+                    contradiction = true;
+                }
+                place(cell, value);
+            }
+        }
+    }
+
+    /**
+     * Enters a value known from elsewhere, e.g. a correct value entered by the player
+     * @param row   row (from 0)
+     * @param column    column (from 0)
+     * @param value value to enter
+     * @return  false if the cell is already filled or the value is no longer possible there
+     */
+    public boolean enter(int row, int column, int value) {
+        int cell = row * size + column;
+        if(values[cell] != 0 || (candidates[cell] & (1 << (value - 1))) == 0) {
+            return false;
+        }
+        place(cell, value);
+        return true;
+    }
+
+    /**
+     * Makes the next deduction with the simplest technique that finds one. A deduction either places
+     * values or rules candidates out.
+     * @return  technique used, or null if the board is solved, stuck or broken
+     */
+    public Technique step() {
+        if(contradiction || filled == cells) {
+            return null;
+        }
+        for(int i = 0; i < techniques; i++) {
+            Technique technique = TECHNIQUES[i];
+            int filledBefore = filled;
+            current = technique.ordinal();
+            boolean progress = apply(technique);
+            current = -1;
+            if(progress) {
+                uses[technique.ordinal()]++;
+                // the values placed next may depend on what this technique ruled out
+                pending = filled == filledBefore ? Math.max(pending, technique.ordinal()) : -1;
+                return contradiction ? null : technique;
+            }
+            if(contradiction) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tries one technique on the whole board
+     * @param technique technique to try
+     * @return  true if anything was placed or ruled out
+     */
+    private boolean apply(Technique technique) {
+        return switch (technique) {
+            case NAKED_SINGLE -> nakedSingles();
+            case HIDDEN_SINGLE -> hiddenSingles();
+            case POINTING -> pointing();
+            case CLAIMING -> claiming();
+            case NAKED_PAIR -> nakedSubsets(2);
+            case HIDDEN_PAIR -> hiddenSubsets(2);
+            case NAKED_TRIPLE -> nakedSubsets(3);
+            case HIDDEN_TRIPLE -> hiddenSubsets(3);
+            case X_WING -> fish(2);
+            case SWORDFISH -> fish(3);
+        };
+    }
+
+    public boolean isSolved() {
+        return filled == cells && !contradiction;
+    }
+
+    /**
+     * Checks if the board turned out to break the rules, e.g. a cell has no candidates left
+     * @return  true if the board can't be solved
+     */
+    public boolean hasContradiction() {
+        return contradiction;
+    }
+
+    /**
+     * Returns how many deductions a technique made in the last solve
+     * @param technique technique to check
+     * @return  number of deductions
+     */
+    public int getUses(Technique technique) {
+        return uses[technique.ordinal()];
+    }
+
+    /**
+     * Returns the hardest technique needed in the last solve
+     * @return  hardest technique, or null if nothing had to be deduced
+     */
+    public Technique getHardestTechnique() {
+        for(int i = TECHNIQUES.length - 1; i >= 0; i--) {
+            if(uses[i] != 0) {
+                return TECHNIQUES[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of filled cells
+     * @return  givens plus the values placed so far
+     */
+    public int getFilledCells() {
+        return filled;
+    }
+
+    /**
+     * Returns a filled cell in the order the cells were filled - givens first, then entered and deduced values
+     * @param index position in the order, below getFilledCells()
+     * @return  cell index (row * size + column)
+     */
+    public int getFilledCell(int index) {
+        return order[index];
+    }
+
+    /**
+     * Returns the technique that led to the value of a cell. Ruling out candidates with a harder technique
+     * before the value was placed counts as well.
+     * @param cell  cell index (row * size + column)
+     * @return  technique, or null for givens, entered values and empty cells
+     */
+    public Technique getTechnique(int cell) {
+        return values[cell] == 0 || placedBy[cell] < 0 ? null : TECHNIQUES[placedBy[cell]];
+    }
+
+    /**
+     * Returns the value of a cell
+     * @param row   row (from 0)
+     * @param column    column (from 0)
+     * @return  value, 0 if not solved yet
+     */
+    public int getValue(int row, int column) {
+        return values[row * size + column];
+    }
+
+    /**
+     * Returns the candidates of a cell
+     * @param row   row (from 0)
+     * @param column    column (from 0)
+     * @return  bitmask with bit (value - 1) set for every possible value, 0 for filled cells
+     */
+    public int getCandidates(int row, int column) {
+        return candidates[row * size + column];
+    }
+
+    /**
+     * Copies the values found so far into a board
+     * @param grid  board to write to
+     */
+    public void copyValues(int[][] grid) {
+        for(int cell = 0; cell < cells; cell++) {
+            grid[layout.rowOf[cell]][layout.columnOf[cell]] = values[cell];
+        }
+    }
+
+    /**
+     * Places a value and removes it from the candidates of every peer
+     * @param cell  cell index
+     * @param value value to place
+     */
+    private void place(int cell, int value) {
+        values[cell] = value;
+        candidates[cell] = 0;
+        placedBy[cell] = current < 0 ? -1 : Math.max(current, pending);
+        order[filled++] = cell;
+        int keep = ~(1 << (value - 1));
+        for(int peer : layout.peers[cell]) {
+            candidates[peer] &= keep;
+            if(candidates[peer] == 0 && values[peer] == 0) {
+                contradiction = true;
+            }
+        }
+    }
+
+    /**
+     * Rules candidates out of an empty cell
+     * @param cell  cell index
+     * @param mask  candidates to remove
+     * @return  true if any of them were still possible
+     */
+    private boolean eliminate(int cell, int mask) {
+        if(values[cell] != 0 || (candidates[cell] & mask) == 0) {
+            return false;
+        }
+        candidates[cell] &= ~mask;
+        if(candidates[cell] == 0) {
+            contradiction = true;
+        }
+        return true;
+    }
+
+    /**
+     * Places every value that is the only candidate of its cell
+     * @return  true if anything was placed
+     */
+    private boolean nakedSingles() {
+        boolean progress = false;
+        for(int cell = 0; cell < cells; cell++) {
+            int mask = candidates[cell];
+            if(values[cell] == 0 && mask != 0 && (mask & (mask - 1)) == 0) {
+                place(cell, Integer.numberOfTrailingZeros(mask) + 1);
+                progress = true;
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Places every value that can only go to one cell of a row, column or box
+     * @return  true if anything was placed
+     */
+    private boolean hiddenSingles() {
+        boolean progress = false;
+        for(int[] unit : units) {
+            int once = 0;
+            int twice = 0;
+            int placed = 0;
+            for(int cell : unit) {
+                if(values[cell] != 0) {
+                    placed |= 1 << (values[cell] - 1);
+                }
+                else {
+                    twice |= once & candidates[cell];
+                    once |= candidates[cell];
+                }
+            }
+            if((once | placed) != layout.allValues) {
+                // a value has nowhere to go
+                contradiction = true;
+                return progress;
+            }
+            int hidden = once & ~twice & ~placed;
+            while(hidden != 0) {
+                int bit = hidden & -hidden;
+                hidden &= hidden - 1;
+                for(int cell : unit) {
+                    if(values[cell] == 0 && (candidates[cell] & bit) != 0) {
+                        place(cell, Integer.numberOfTrailingZeros(bit) + 1);
+                        progress = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Fills in positions[] for a unit - for each value, the positions in the unit where it is still possible
+     * @param unit  cells of the unit
+     */
+    private void findPositions(int[] unit) {
+        for(int v = 0; v < size; v++) {
+            positions[v] = 0;
+        }
+        for(int i = 0; i < size; i++) {
+            int mask = candidates[unit[i]];
+            while(mask != 0) {
+                positions[Integer.numberOfTrailingZeros(mask)] |= 1 << i;
+                mask &= mask - 1;
+            }
+        }
+    }
+
+    /**
+     * When a value can only go to one row or column of a box, removes it from the rest of that row or column
+     * @return  true if anything was ruled out
+     */
+    private boolean pointing() {
+        boolean progress = false;
+        int boxSize = layout.boxSize;
+        for(int box = 0; box < size; box++) {
+            int[] unit = units[2 * size + box];
+            findPositions(unit);
+            for(int v = 0; v < size; v++) {
+                int mask = positions[v];
+                if(mask == 0) {
+                    continue;
+                }
+                // positions in a box are numbered row by row
+                int rows = 0;
+                int columns = 0;
+                while(mask != 0) {
+                    int position = Integer.numberOfTrailingZeros(mask);
+                    mask &= mask - 1;
+                    rows |= 1 << (position / boxSize);
+                    columns |= 1 << (position % boxSize);
+                }
+                int bit = 1 << v;
+                if((rows & (rows - 1)) == 0) {
+                    int row = layout.rowOf[unit[Integer.numberOfTrailingZeros(rows) * boxSize]];
+                    for(int cell : units[row]) {
+                        if(layout.boxOf[cell] != box) {
+                            progress |= eliminate(cell, bit);
+                        }
+                    }
+                }
+                if((columns & (columns - 1)) == 0) {
+                    int column = layout.columnOf[unit[Integer.numberOfTrailingZeros(columns)]];
+                    for(int cell : units[size + column]) {
+                        if(layout.boxOf[cell] != box) {
+                            progress |= eliminate(cell, bit);
+                        }
+                    }
+                }
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * When a value can only go to one box within a row or column, removes it from the rest of that box
+     * @return  true if anything was ruled out
+     */
+    private boolean claiming() {
+        boolean progress = false;
+        for(int line = 0; line < 2 * size; line++) {
+            int[] unit = units[line];
+            findPositions(unit);
+            for(int v = 0; v < size; v++) {
+                int mask = positions[v];
+                if(mask == 0) {
+                    continue;
+                }
+                int box = layout.boxOf[unit[Integer.numberOfTrailingZeros(mask)]];
+                boolean oneBox = true;
+                while(mask != 0 && oneBox) {
+                    oneBox = layout.boxOf[unit[Integer.numberOfTrailingZeros(mask)]] == box;
+                    mask &= mask - 1;
+                }
+                if(!oneBox) {
+                    continue;
+                }
+                for(int cell : units[2 * size + box]) {
+                    boolean inLine = line < size ? layout.rowOf[cell] == line : layout.columnOf[cell] == line - size;
+                    if(!inLine) {
+                        progress |= eliminate(cell, 1 << v);
+                    }
+                }
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * When n cells of a unit have only n candidates between them, removes those candidates from the
+     * other cells of the unit
+     * @param n number of cells (2 for pairs, 3 for triples)
+     * @return  true if anything was ruled out
+     */
+    private boolean nakedSubsets(int n) {
+        boolean progress = false;
+        for(int[] unit : units) {
+            // cells that can take part - empty with 2 to n candidates
+            int count = 0;
+            for(int i = 0; i < size; i++) {
+                int candidateCount = Integer.bitCount(candidates[unit[i]]);
+                if(candidateCount >= 2 && candidateCount <= n) {
+                    subset[count++] = i;
+                }
+            }
+            for(int a = 0; a < count; a++) {
+                for(int b = a + 1; b < count; b++) {
+                    int pair = candidates[unit[subset[a]]] | candidates[unit[subset[b]]];
+                    if(n == 2) {
+                        if(Integer.bitCount(pair) == 2) {
+                            progress |= eliminateOthers(unit, 1 << subset[a] | 1 << subset[b], pair);
+                        }
+                        continue;
+                    }
+                    for(int c = b + 1; c < count; c++) {
+                        int triple = pair | candidates[unit[subset[c]]];
+                        if(Integer.bitCount(triple) == 3) {
+                            progress |= eliminateOthers(unit, 1 << subset[a] | 1 << subset[b] | 1 << subset[c], triple);
+                        }
+                    }
+                }
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Removes candidates from the cells of a unit outside of a set of positions
+     * @param unit  cells of the unit
+     * @param keep  positions to leave alone
+     * @param mask  candidates to remove
+     * @return  true if anything was ruled out
+     */
+    private boolean eliminateOthers(int[] unit, int keep, int mask) {
+        boolean progress = false;
+        for(int i = 0; i < size; i++) {
+            if((keep & (1 << i)) == 0) {
+                progress |= eliminate(unit[i], mask);
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * When n values of a unit can only go to the same n cells, removes every other candidate from those cells
+     * @param n number of values (2 for pairs, 3 for triples)
+     * @return  true if anything was ruled out
+     */
+    private boolean hiddenSubsets(int n) {
+        boolean progress = false;
+        for(int[] unit : units) {
+            findPositions(unit);
+            // values that can take part - possible in 2 to n cells
+            int count = 0;
+            for(int v = 0; v < size; v++) {
+                int positionCount = Integer.bitCount(positions[v]);
+                if(positionCount >= 2 && positionCount <= n) {
+                    subset[count++] = v;
+                }
+            }
+            for(int a = 0; a < count; a++) {
+                for(int b = a + 1; b < count; b++) {
+                    int pair = positions[subset[a]] | positions[subset[b]];
+                    if(n == 2) {
+                        if(Integer.bitCount(pair) == 2) {
+                            progress |= keepOnly(unit, pair, 1 << subset[a] | 1 << subset[b]);
+                        }
+                        continue;
+                    }
+                    for(int c = b + 1; c < count; c++) {
+                        int triple = pair | positions[subset[c]];
+                        if(Integer.bitCount(triple) == 3) {
+                            progress |= keepOnly(unit, triple, 1 << subset[a] | 1 << subset[b] | 1 << subset[c]);
+                        }
+                    }
+                }
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Removes every candidate except some values from a set of cells of a unit
+     * @param unit  cells of the unit
+     * @param cellPositions positions of the cells in the unit
+     * @param keep  candidates to keep
+     * @return  true if anything was ruled out
+     */
+    private boolean keepOnly(int[] unit, int cellPositions, int keep) {
+        boolean progress = false;
+        while(cellPositions != 0) {
+            int position = Integer.numberOfTrailingZeros(cellPositions);
+            cellPositions &= cellPositions - 1;
+            progress |= eliminate(unit[position], ~keep & layout.allValues);
+        }
+        return progress;
+    }
+
+    /**
+     * Fish of size n (X-Wing for 2, Swordfish for 3): when a value can only go to the same n columns
+     * in n rows, it can't go anywhere else in those columns - and the same with rows and columns swapped
+     * @param n number of rows or columns
+     * @return  true if anything was ruled out
+     */
+    private boolean fish(int n) {
+        boolean progress = false;
+        for(int v = 0; v < size; v++) {
+            int bit = 1 << v;
+            for(int base = 0; base <= size; base += size) {
+                // base lines are rows (0) or columns (size), cover lines the other kind
+                int cover = size - base;
+                int count = 0;
+                for(int line = 0; line < size; line++) {
+                    int[] unit = units[base + line];
+                    int mask = 0;
+                    for(int i = 0; i < size; i++) {
+                        if((candidates[unit[i]] & bit) != 0) {
+                            mask |= 1 << i;
+                        }
+                    }
+                    int positionCount = Integer.bitCount(mask);
+                    if(positionCount >= 2 && positionCount <= n) {
+                        subset[count] = line;
+                        positions[count++] = mask;
+                    }
+                }
+                for(int a = 0; a < count; a++) {
+                    for(int b = a + 1; b < count; b++) {
+                        int pair = positions[a] | positions[b];
+                        if(n == 2) {
+                            if(Integer.bitCount(pair) == 2) {
+                                progress |= eliminateFish(cover, pair, 1 << subset[a] | 1 << subset[b], bit);
+                            }
+                            continue;
+                        }
+                        for(int c = b + 1; c < count; c++) {
+                            int triple = pair | positions[c];
+                            if(Integer.bitCount(triple) == 3) {
+                                progress |= eliminateFish(cover, triple,
+                                        1 << subset[a] | 1 << subset[b] | 1 << subset[c], bit);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Removes a value from the cover lines of a fish, except where they cross the base lines
+     * @param cover offset of the cover lines in units (0 for rows, size for columns)
+     * @param coverLines    cover lines taking part
+     * @param baseLines base lines taking part
+     * @param bit   bit of the value
+     * @return  true if anything was ruled out
+     */
+    private boolean eliminateFish(int cover, int coverLines, int baseLines, int bit) {
+        boolean progress = false;
+        while(coverLines != 0) {
+            int line = Integer.numberOfTrailingZeros(coverLines);
+            coverLines &= coverLines - 1;
+            // position i of a cover line lies on base line i
+            progress |= eliminateOthers(units[cover + line], baseLines, bit);
+        }
+        return progress;
+    }
+}
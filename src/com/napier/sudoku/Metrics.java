@@ -0,0 +1,169 @@
+package com.napier.sudoku;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and histograms of what the game engine does - generation, moves, saves and loads - shared by
+ * every board and session in the JVM. Counters are LongAdders and histograms never allocate, so updating
+ * them is cheap enough to stay on all the time. They can be read over JMX (com.napier.sudoku:type=Metrics
+ * and one com.napier.sudoku:type=Histogram per histogram) or dumped as text periodically.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class Metrics implements MetricsMXBean {
+    public static final String DOMAIN = "com.napier.sudoku";
+
+    // counters
+    public static final LongAdder MOVES = new LongAdder();
+    public static final LongAdder UNDOS = new LongAdder();
+    public static final LongAdder REDOS = new LongAdder();
+    public static final LongAdder CLUES = new LongAdder();
+    public static final LongAdder SOLVED_CHECKS = new LongAdder();
+    public static final LongAdder GAMES_SOLVED = new LongAdder();
+    public static final LongAdder EMPTY_CELL_RETRIES = new LongAdder();
+    public static final LongAdder DIG_RETRIES = new LongAdder();
+
+    // histograms
+    public static final Histogram GENERATE_TIME = new Histogram("generateTime", "ns");
+    public static final Histogram GENERATE_DEPTH = new Histogram("generateDepth", "levels");
+    public static final Histogram GENERATE_BACKTRACKS = new Histogram("generateBacktracks", "backtracks");
+    public static final Histogram SAVE_TIME = new Histogram("saveTime", "ns");
+    public static final Histogram SAVE_BYTES = new Histogram("saveBytes", "bytes");
+    public static final Histogram LOAD_TIME = new Histogram("loadTime", "ns");
+    public static final Histogram CLUES_PER_GAME = new Histogram("cluesPerGame", "clues");
+
+    private static final Histogram[] HISTOGRAMS = {GENERATE_TIME, GENERATE_DEPTH, GENERATE_BACKTRACKS, SAVE_TIME,
+            SAVE_BYTES, LOAD_TIME, CLUES_PER_GAME};
+    private static final Metrics INSTANCE = new Metrics();
+    private static boolean registered;
+    private static ScheduledExecutorService dumper;
+
+    private Metrics() {
+    }
+
+    /**
+     * Registers the counters and histograms with the platform MBean server, once per JVM
+     */
+    public static synchronized void register() {
+        if(registered) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(INSTANCE, new ObjectName(DOMAIN + ":type=Metrics"));
+            for(Histogram histogram : HISTOGRAMS) {
+                server.registerMBean(histogram, new ObjectName(DOMAIN + ":type=Histogram,name=" + histogram.getName()));
+            }
+            registered = true;
+        }
+        catch (JMException ex) {
+            // the game works the same without JMX
+            System.err.println("Could not register metrics: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Starts printing all metrics periodically on a background thread
+     * @param out   stream to print to
+     * @param periodSeconds seconds between dumps
+     */
+    public static synchronized void startDump(PrintStream out, long periodSeconds) {
+        if(dumper != null) {
+            return;
+        }
+        dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> out.print(dump()), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic dump
+     */
+    public static synchronized void stopDump() {
+        if(dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+    }
+
+    /**
+     * Returns all counters and histograms as text, one per line
+     * @return  text dump of all metrics
+     */
+    public static String dump() {
+        StringBuilder text = new StringBuilder("# sudoku metrics\n");
+        text.append("moves ").append(MOVES.sum()).append('\n');
+        text.append("undos ").append(UNDOS.sum()).append('\n');
+        text.append("redos ").append(REDOS.sum()).append('\n');
+        text.append("clues ").append(CLUES.sum()).append('\n');
+        text.append("solvedChecks ").append(SOLVED_CHECKS.sum()).append('\n');
+        text.append("gamesSolved ").append(GAMES_SOLVED.sum()).append('\n');
+        text.append("emptyCellRetries ").append(EMPTY_CELL_RETRIES.sum()).append('\n');
+        text.append("digRetries ").append(DIG_RETRIES.sum()).append('\n');
+        for(Histogram histogram : HISTOGRAMS) {
+            text.append(histogram.getName()).append(" count=").append(histogram.getCount())
+                    .append(" mean=").append(Math.round(histogram.getMean()))
+                    .append(" p50<=").append(histogram.getMedian())
+                    .append(" p99<=").append(histogram.getPercentile99())
+                    .append(" max=").append(histogram.getMax())
+                    .append(' ').append(histogram.getUnit()).append('\n');
+        }
+        return text.toString();
+    }
+
+    @Override
+    public long getMoves() {
+        return MOVES.sum();
+    }
+
+    @Override
+    public long getUndos() {
+        return UNDOS.sum();
+    }
+
+    @Override
+    public long getRedos() {
+        return REDOS.sum();
+    }
+
+    @Override
+    public long getClues() {
+        return CLUES.sum();
+    }
+
+    @Override
+    public long getSolvedChecks() {
+        return SOLVED_CHECKS.sum();
+    }
+
+    @Override
+    public long getGamesSolved() {
+        return GAMES_SOLVED.sum();
+    }
+
+    @Override
+    public long getEmptyCellRetries() {
+        return EMPTY_CELL_RETRIES.sum();
+    }
+
+    @Override
+    public long getDigRetries() {
+        return DIG_RETRIES.sum();
+    }
+
+    @Override
+    public String getDump() {
+        return dump();
+    }
+}
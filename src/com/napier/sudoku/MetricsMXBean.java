@@ -0,0 +1,40 @@
+package com.napier.sudoku;
+
+/**
+ * Management interface of the game counters, exposed over JMX.
+ * Latencies and sizes are exposed as separate histograms.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public interface MetricsMXBean {
+    long getMoves();
+
+    long getUndos();
+
+    long getRedos();
+
+    long getClues();
+
+    long getSolvedChecks();
+
+    long getGamesSolved();
+
+    /**
+     * Returns how many cells picked for emptying were left filled: random picks that were empty already, and
+     * pairs put back while digging boards with one solution
+     * @return  number of picks retried
+     */
+    long getEmptyCellRetries();
+
+    /**
+     * Returns how many times a full board was dug again because the last dig didn't fit the difficulty
+     * @return  number of digs retried
+     */
+    long getDigRetries();
+
+    /**
+     * Returns the counters and histograms as text, one per line
+     * @return  text dump of all metrics
+     */
+    String getDump();
+}
@@ -0,0 +1,120 @@
+package com.napier.sudoku;
+
+/**
+ * Moves packed into a single int: row, column, old value and new value, 8 bits each.
+ * This class is the only place that knows the layout, and it also converts moves to and from
+ * the representations used in save files.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public final class Move {
+    private static final int FIELD_BITS = 8;
+    private static final int FIELD_MASK = 0xFF;
+    private static final int COMPACT_BITS = 5;  // enough for coordinates and values up to 25
+    private static final int COMPACT_MASK = 0x1F;
+
+    private Move() {
+    }
+
+    /**
+     * Packs a move into an int
+     * @param row   row (from 1)
+     * @param column    column (from 1)
+     * @param oldValue  value in the cell before the move (0 for empty)
+     * @param newValue  value in the cell after the move (0 for empty)
+     * @return  packed move
+     */
+    public static int of(int row, int column, int oldValue, int newValue) {
+        return row << 3 * FIELD_BITS | column << 2 * FIELD_BITS | oldValue << FIELD_BITS | newValue;
+    }
+
+    public static int row(int move) {
+        return move >>> 3 * FIELD_BITS & FIELD_MASK;
+    }
+
+    public static int column(int move) {
+        return move >>> 2 * FIELD_BITS & FIELD_MASK;
+    }
+
+    public static int oldValue(int move) {
+        return move >>> FIELD_BITS & FIELD_MASK;
+    }
+
+    public static int newValue(int move) {
+        return move & FIELD_MASK;
+    }
+
+    /**
+     * Returns the move that takes the cell back to its old value
+     * @param move  packed move
+     * @return  packed move with old and new values swapped
+     */
+    public static int reverse(int move) {
+        return of(row(move), column(move), newValue(move), oldValue(move));
+    }
+
+    /**
+     * Converts a move to the 4-character text used in text saves (row, column, old value, new value).
+     * Each field is one character, 0-9 and then A-Z, so moves on 9x9 boards are 4 digits.
+     * @param move  packed move
+     * @return  move text
+     */
+    public static String toText(int move) {
+        char[] text = {
+                BoardCodec.toChar(row(move)),
+                BoardCodec.toChar(column(move)),
+                BoardCodec.toChar(oldValue(move)),
+                BoardCodec.toChar(newValue(move))
+        };
+        return new String(text);
+    }
+
+    /**
+     * Reads a move from the 4-character text used in text saves
+     * @param text  move text
+     * @return  packed move
+     */
+    public static int fromText(CharSequence text) {
+        int max = CandidateGrid.MAX_BOX_SIZE * CandidateGrid.MAX_BOX_SIZE;
+        return of(BoardCodec.fromChar(text.charAt(0), max), BoardCodec.fromChar(text.charAt(1), max),
+                BoardCodec.fromChar(text.charAt(2), max), BoardCodec.fromChar(text.charAt(3), max));
+    }
+
+    /**
+     * Converts a move to the 20-bit form used in journals, 5 bits per field
+     * @param move  packed move
+     * @return  move in the lowest 20 bits
+     */
+    public static int toCompact(int move) {
+        return row(move) << 3 * COMPACT_BITS | column(move) << 2 * COMPACT_BITS
+                | oldValue(move) << COMPACT_BITS | newValue(move);
+    }
+
+    /**
+     * Reads a move from the 20-bit form used in journals
+     * @param packed    move in the lowest 20 bits
+     * @return  packed move
+     */
+    public static int fromCompact(int packed) {
+        return of(packed >>> 3 * COMPACT_BITS & COMPACT_MASK, packed >>> 2 * COMPACT_BITS & COMPACT_MASK,
+                packed >>> COMPACT_BITS & COMPACT_MASK, packed & COMPACT_MASK);
+    }
+
+    /**
+     * Converts a move to the short used in binary saves of boards up to 15x15, 4 bits per field
+     * @param move  packed move
+     * @return  move as a short
+     */
+    public static short toShort(int move) {
+        return (short) (row(move) << 12 | column(move) << 8 | oldValue(move) << 4 | newValue(move));
+    }
+
+    /**
+     * Reads a move from the short used in binary saves
+     * @param packed    move as a short
+     * @return  packed move
+     */
+    public static int fromShort(short packed) {
+        return of(packed >> 12 & 0xF, packed >> 8 & 0xF, packed >> 4 & 0xF, packed & 0xF);
+    }
+}
@@ -0,0 +1,109 @@
+package com.napier.sudoku;
+
+/**
+ * Growable double-ended queue of packed moves backed by a circular int array
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class MoveDeque {
+    private int[] moves;    // length is always a power of 2
+    private int head;   // index of the first move
+    private int size;
+
+    /**
+     * Constructor
+     */
+    public MoveDeque() {
+        this.moves = new int[16];
+    }
+
+    /**
+     * Adds a move at the end of the queue
+     * @param move  packed move
+     */
+    public void addLast(int move) {
+        ensureSpace();
+        moves[(head + size) & (moves.length - 1)] = move;
+        size++;
+    }
+
+    /**
+     * Adds a move at the front of the queue
+     * @param move  packed move
+     */
+    public void addFirst(int move) {
+        ensureSpace();
+        head = (head - 1) & (moves.length - 1);
+        moves[head] = move;
+        size++;
+    }
+
+    /**
+     * Removes the first move of the queue
+     * @return  packed move
+     */
+    public int removeFirst() {
+        if(size == 0) {
+            throw new IllegalStateException("Queue is empty");
+        }
+        int move = moves[head];
+        head = (head + 1) & (moves.length - 1);
+        size--;
+        return move;
+    }
+
+    /**
+     * Removes the last move of the queue
+     * @return  packed move
+     */
+    public int removeLast() {
+        if(size == 0) {
+            throw new IllegalStateException("Queue is empty");
+        }
+        size--;
+        return moves[(head + size) & (moves.length - 1)];
+    }
+
+    /**
+     * Returns a move by its position in the queue
+     * @param index position (0 is the first move)
+     * @return  packed move
+     */
+    public int get(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return moves[(head + index) & (moves.length - 1)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all moves, keeping the allocated space
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Doubles the array when it is full, moving the moves to the start of the new array
+     */
+    private void ensureSpace() {
+        if(size < moves.length) {
+            return;
+        }
+        int[] grown = new int[moves.length * 2];
+        for(int i = 0; i < size; i++) {
+            grown[i] = moves[(head + i) & (moves.length - 1)];
+        }
+        moves = grown;
+        head = 0;
+    }
+}
@@ -0,0 +1,286 @@
+package com.napier.sudoku;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of game actions kept next to a save snapshot.
+ * Saving only appends the actions made since the last save; once the journal grows past a threshold,
+ * a new snapshot is written and the journal is started again (compaction).
+ * The journal starts with a header holding the checksum of the snapshot it belongs to, followed by
+ * 8-byte records: action type, the move in 5-bit fields (3 bytes) and a CRC32 of those 4 bytes.
+ * Journals of the first version stored the move as a short with 4-bit fields, and can still be recovered.
+ * A torn or corrupted record at the end is dropped when the journal is recovered, and left in place when it is
+ * only replayed.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class MoveJournal {
+    static final int MAGIC = 0x534A5232;    // "SJR2"
+    static final int MAGIC_V1 = 0x534A524E; // "SJRN", moves as shorts
+    static final int HEADER_BYTES = 8;
+    static final int RECORD_BYTES = 8;
+    static final int DEFAULT_COMPACTION_THRESHOLD = 512;
+
+    // action types
+    public static final byte VALUE = 1;
+    public static final byte UNDO = 2;
+    public static final byte REDO = 3;
+    public static final byte CLUE = 4;
+    public static final byte START_OVER = 5;
+
+    private final Path snapshot;
+    private final Path journal;
+    private final int compactionThreshold;
+    private final CRC32 crc;
+    private int records;    // records in the journal file since the last snapshot
+    private boolean needsSnapshot;  // true if the journal can't be appended to
+    private int[] pending;  // records of the actions since the last save, type << 24 | compact move
+    private int pendingCount;
+
+    /**
+     * Constructor
+     * @param snapshot  save file holding the last snapshot
+     */
+    public MoveJournal(Path snapshot) {
+        this(snapshot, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Constructor
+     * @param snapshot  save file holding the last snapshot
+     * @param compactionThreshold   number of journal records after which a new snapshot is written
+     */
+    public MoveJournal(Path snapshot, int compactionThreshold) {
+        this.snapshot = snapshot;
+        this.journal = snapshot.resolveSibling(snapshot.getFileName() + ".journal");
+        this.compactionThreshold = compactionThreshold;
+        this.crc = new CRC32();
+        this.needsSnapshot = true;
+        this.pending = new int[16];
+    }
+
+    /**
+     * Remembers an action made since the last save
+     * @param type  action type
+     * @param move  packed move made by the action (0 for START_OVER)
+     */
+    public void record(byte type, int move) {
+        if(pendingCount == pending.length) {
+            int[] grown = new int[pending.length * 2];
+            System.arraycopy(pending, 0, grown, 0, pendingCount);
+            pending = grown;
+        }
+        pending[pendingCount++] = (type << 24) | Move.toCompact(move);
+    }
+
+    /**
+     * Saves the game - appends the actions made since the last save, or writes a new snapshot if the journal
+     * is full or doesn't belong to the current snapshot
+     * @param data  current state of the game, used for snapshots
+     * @return  number of bytes written
+     */
+    public int save(SaveData data) throws IOException {
+        int written;
+        if(needsSnapshot || records + pendingCount > compactionThreshold) {
+            written = compact(data);
+        }
+        else {
+            written = append();
+        }
+        pendingCount = 0;
+        return written;
+    }
+
+    /**
+     * Applies the journal of the snapshot to a game read from it, dropping a torn record at the end
+     * @param data  game read from the snapshot, updated in place
+     */
+    public void recover(SaveData data) throws IOException {
+        pendingCount = 0;
+        records = 0;
+        needsSnapshot = true;
+        if(!Files.exists(journal)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long validLength = read(channel, data);
+            // drop anything after the last good record so that new records follow it
+            if(validLength >= 0 && validLength < channel.size()) {
+                channel.truncate(validLength);
+            }
+        }
+    }
+
+    /**
+     * Applies the journal of the snapshot to a game read from it without changing the journal, e.g. to inspect
+     * saves after a crash. Unlike recover, a torn or corrupted record at the end is left where it is.
+     * The journal can't be appended to until it is recovered.
+     * @param data  game read from the snapshot, updated in place
+     * @return  bytes after the last good record, 0 if the journal ends cleanly or doesn't belong to the snapshot
+     */
+    public long replay(SaveData data) throws IOException {
+        pendingCount = 0;
+        records = 0;
+        if(!Files.exists(journal)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+            long validLength = read(channel, data);
+            needsSnapshot = true;
+            return validLength < 0 ? 0 : channel.size() - validLength;
+        }
+    }
+
+    /**
+     * Reads the journal and applies its records up to the first torn or corrupted one
+     * @param channel   open journal
+     * @param data  game read from the snapshot, updated in place
+     * @return  length of the journal up to the last good record, -1 if it doesn't belong to the snapshot
+     */
+    private long read(FileChannel channel, SaveData data) throws IOException {
+        long size = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size, Integer.MAX_VALUE));
+        while(buffer.hasRemaining() && channel.read(buffer) != -1) {
+            // keep reading until the whole journal is in the buffer
+        }
+        buffer.flip();
+        // a journal written for another snapshot is out of date - the snapshot already has its actions
+        if(buffer.remaining() < HEADER_BYTES) {
+            return -1;
+        }
+        int magic = buffer.getInt();
+        if((magic != MAGIC && magic != MAGIC_V1) || buffer.getInt() != SaveCodec.checksum(snapshot)) {
+            return -1;
+        }
+        while(buffer.remaining() >= RECORD_BYTES) {
+            int record = buffer.getInt();
+            int checksum = buffer.getInt();
+            if(checksum != checksum(record)) {
+                break;
+            }
+            int move = magic == MAGIC ? Move.fromCompact(record & 0xFFFFFF) : Move.fromShort((short) record);
+            apply(data, (byte) (record >>> 24), move);
+            records++;
+        }
+        // new records can't be added to a first version journal, the next save starts a new one
+        needsSnapshot = magic != MAGIC;
+        return HEADER_BYTES + (long) records * RECORD_BYTES;
+    }
+
+    /**
+     * Applies a journal action to a game
+     * @param data  game to update
+     * @param type  action type
+     * @param move  packed move made by the action
+     */
+    static void apply(SaveData data, byte type, int move) throws IOException {
+        int row = Move.row(move);
+        int column = Move.column(move);
+        int newValue = Move.newValue(move);
+        switch (type) {
+            case VALUE -> {
+                data.moves.push(move);
+                data.movesQueue.addLast(move);
+                data.board.insertValue(row, column, newValue);
+            }
+            case UNDO -> {
+                pop(data.moves);
+                data.undoneMoves.push(move);
+                data.movesQueue.addLast(move);
+                data.board.insertValue(row, column, newValue);
+            }
+            case REDO -> {
+                pop(data.undoneMoves);
+                data.moves.push(move);
+                data.movesQueue.addLast(move);
+                data.board.insertValue(row, column, newValue);
+            }
+            case CLUE -> {
+                data.movesQueue.addLast(move);
+                data.board.insertValue(row, column, newValue);
+                data.cluesUsed++;
+            }
+            case START_OVER -> {
+                data.board.startOver();
+                data.moves.clear();
+                data.undoneMoves.clear();
+                data.movesQueue.clear();
+                data.cluesUsed = 0;
+            }
+            default -> throw new IOException("Unknown journal record " + type);
+        }
+    }
+
+    /**
+     * Removes the top of a stack, checking that there is one
+     * @param stack stack to remove the move from
+     */
+    private static void pop(MoveStack stack) throws IOException {
+        if(stack.isEmpty()) {
+            throw new IOException("Journal does not match the save");
+        }
+        stack.pop();
+    }
+
+    /**
+     * Writes a new snapshot and starts a new journal for it
+     * @param data  current state of the game
+     * @return  number of bytes written
+     */
+    private int compact(SaveData data) throws IOException {
+        int written = SaveCodec.write(snapshot, data);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC);
+        header.putInt(SaveCodec.checksum(snapshot));
+        header.flip();
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(header.hasRemaining()) {
+                channel.write(header);
+            }
+        }
+        records = 0;
+        needsSnapshot = false;
+        return written + HEADER_BYTES;
+    }
+
+    /**
+     * Appends the actions made since the last save to the journal
+     * @return  number of bytes written
+     */
+    private int append() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(pendingCount * RECORD_BYTES);
+        for(int i = 0; i < pendingCount; i++) {
+            buffer.putInt(pending[i]);
+            buffer.putInt(checksum(pending[i]));
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        records += pendingCount;
+        return pendingCount * RECORD_BYTES;
+    }
+
+    /**
+     * Calculates the checksum of a record
+     * @param record    type and packed move of the record
+     * @return  CRC32 of the 4 record bytes
+     */
+    private int checksum(int record) {
+        crc.reset();
+        crc.update(record >>> 24);
+        crc.update(record >>> 16);
+        crc.update(record >>> 8);
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+}
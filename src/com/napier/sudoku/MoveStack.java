@@ -0,0 +1,80 @@
+package com.napier.sudoku;
+
+import java.util.Arrays;
+
+/**
+ * Growable stack of packed moves backed by an int array
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class MoveStack {
+    private int[] moves;
+    private int size;
+
+    /**
+     * Constructor
+     */
+    public MoveStack() {
+        this.moves = new int[16];
+    }
+
+    /**
+     * Puts a move on top of the stack
+     * @param move  packed move
+     */
+    public void push(int move) {
+        if(size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    /**
+     * Removes the move on top of the stack
+     * @return  packed move
+     */
+    public int pop() {
+        if(size == 0) {
+            throw new IllegalStateException("Stack is empty");
+        }
+        return moves[--size];
+    }
+
+    /**
+     * Returns the move on top of the stack without removing it
+     * @return  packed move
+     */
+    public int peek() {
+        if(size == 0) {
+            throw new IllegalStateException("Stack is empty");
+        }
+        return moves[size - 1];
+    }
+
+    /**
+     * Returns a move by its position, counted from the bottom of the stack
+     * @param index position (0 is the bottom)
+     * @return  packed move
+     */
+    public int get(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return moves[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all moves, keeping the allocated space
+     */
+    public void clear() {
+        size = 0;
+    }
+}
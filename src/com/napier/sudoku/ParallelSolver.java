@@ -0,0 +1,211 @@
+package com.napier.sudoku;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Backtracking solver that spreads the search over a fork-join pool.
+ * The first few levels of the search tree are split into one task per possible value of the cell with the
+ * fewest options, and idle worker threads steal those tasks from busy ones. Below the split depth every task
+ * searches its subtree on its own. As soon as a solution is found (or the limit of solutions is reached when
+ * counting), all other tasks stop at their next check.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+class ParallelSolver implements Solver {
+    private static final int DEFAULT_SPLIT_DEPTH = Integer.getInteger("sudoku.parallel.splitDepth", 6);
+    private static final int CHECK_INTERVAL = 256;  // search steps between checks for a stop
+
+    private final CandidateGrid.Layout layout;
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+
+    /**
+     * Constructor using the common fork-join pool
+     * @param boxSize   size of a box of the boards to solve
+     */
+    ParallelSolver(int boxSize) {
+        this(boxSize, ForkJoinPool.commonPool(), DEFAULT_SPLIT_DEPTH);
+    }
+
+    /**
+     * Constructor
+     * @param boxSize   size of a box of the boards to solve
+     * @param pool  pool to run the search on
+     * @param splitDepth    levels of the search tree split into separate tasks
+     */
+    ParallelSolver(int boxSize, ForkJoinPool pool, int splitDepth) {
+        this.layout = CandidateGrid.layout(boxSize);
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+    }
+
+    @Override
+    public boolean solve(int[][] grid) {
+        Search search = run(grid, 1);
+        int[][] solution = search.solution.get();
+        if(solution == null) {
+            return false;
+        }
+        copy(solution, grid);
+        return true;
+    }
+
+    @Override
+    public int countSolutions(int[][] grid, int limit) {
+        return Math.min(run(grid, limit).found.get(), limit);
+    }
+
+    /**
+     * Checks the givens and runs the search on the pool
+     * @param grid  board to search
+     * @param limit number of solutions to stop at
+     * @return  state of the finished search
+     */
+    private Search run(int[][] grid, int limit) {
+        Search search = new Search(limit);
+        // givens that already break the rules have no solutions
+        CandidateGrid candidates = new CandidateGrid(layout.boxSize);
+        for(int cell = 0; cell < layout.cells; cell++) {
+            int value = grid[layout.rowOf[cell]][layout.columnOf[cell]];
+            if(value != 0) {
+                if(!candidates.isSafe(cell, value)) {
+                    return search;
+                }
+                candidates.place(cell, value);
+            }
+        }
+        int[][] start = new int[layout.size][layout.size];
+        copy(grid, start);
+        pool.invoke(new SearchTask(search, start, 0));
+        return search;
+    }
+
+    /**
+     * Copies the values of one board into another of the same size
+     * @param from  board to copy
+     * @param to    board to overwrite
+     */
+    private static void copy(int[][] from, int[][] to) {
+        for(int i = 0; i < from.length; i++) {
+            System.arraycopy(from[i], 0, to[i], 0, from[i].length);
+        }
+    }
+
+    /**
+     * State shared by all tasks of one search
+     */
+    private static class Search {
+        final int limit;
+        final AtomicInteger found;
+        final AtomicReference<int[][]> solution;    // first solution found
+        volatile boolean stopped;
+
+        Search(int limit) {
+            this.limit = limit;
+            this.found = new AtomicInteger();
+            this.solution = new AtomicReference<>();
+        }
+
+        /**
+         * Records a solution, stopping the search once the limit is reached
+         * @param grid  solved board, copied if it's the first solution
+         */
+        void solved(int[][] grid) {
+            if(solution.get() == null) {
+                int[][] copy = new int[grid.length][grid.length];
+                ParallelSolver.copy(grid, copy);
+                solution.compareAndSet(null, copy);
+            }
+            if(found.incrementAndGet() >= limit) {
+                stopped = true;
+            }
+        }
+    }
+
+    /**
+     * Task searching the subtree below a partly filled board
+     */
+    @SuppressWarnings("serial") // tasks are never serialized
+    private class SearchTask extends RecursiveAction {
+        private final Search search;
+        private final int[][] grid;
+        private final int depth;
+        private CandidateGrid candidates;
+        private int steps;
+
+        /**
+         * Constructor
+         * @param search    state shared by the whole search
+         * @param grid  board owned by this task
+         * @param depth depth of the board in the search tree
+         */
+        SearchTask(Search search, int[][] grid, int depth) {
+            this.search = search;
+            this.grid = grid;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if(search.stopped) {
+                return;
+            }
+            candidates = new CandidateGrid(layout.boxSize);
+            candidates.load(grid);
+            if(depth >= splitDepth) {
+                searchAlone();
+                return;
+            }
+            int cell = candidates.selectCell(grid);
+            if(cell == -1) {
+                search.solved(grid);
+                return;
+            }
+            // one task per possible value of the cell with the fewest options
+            int mask = candidates.candidates(cell);
+            SearchTask[] tasks = new SearchTask[Integer.bitCount(mask)];
+            for(int i = 0; i < tasks.length; i++) {
+                int[][] next = new int[layout.size][layout.size];
+                copy(grid, next);
+                next[layout.rowOf[cell]][layout.columnOf[cell]] = Integer.numberOfTrailingZeros(mask) + 1;
+                mask &= mask - 1;
+                tasks[i] = new SearchTask(search, next, depth + 1);
+            }
+            invokeAll(tasks);
+        }
+
+        /**
+         * Backtracking search over the cell with the fewest possible values, within this task
+         * @return  false once the search has been stopped
+         */
+        private boolean searchAlone() {
+            if(++steps % CHECK_INTERVAL == 0 && search.stopped) {
+                return false;
+            }
+            int cell = candidates.selectCell(grid);
+            if(cell == -1) {
+                search.solved(grid);
+                return !search.stopped;
+            }
+            int row = layout.rowOf[cell];
+            int column = layout.columnOf[cell];
+            int mask = candidates.candidates(cell);
+            while(mask != 0) {
+                int value = Integer.numberOfTrailingZeros(mask) + 1;
+                mask &= mask - 1;
+                grid[row][column] = value;
+                candidates.place(cell, value);
+                boolean running = searchAlone();
+                grid[row][column] = 0;
+                candidates.remove(cell, value);
+                if(!running) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.napier.sudoku;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded pool of ready-to-play boards for each difficulty, refilled by background threads.
+ * Boards are stored as 162 characters - the complete board followed by the initial board, 0 for empty cells -
+ * then a space and the grader score of the board.
+ * The pool is written to disk so that the next start can serve boards straight away.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class PuzzlePool {
+    private static final int CELLS = CandidateGrid.layout(CandidateGrid.DEFAULT_BOX_SIZE).cells;    // the pool only holds 9x9 boards
+
+    private final Map<Difficulty, BlockingQueue<String>> pools;
+    private final Map<Difficulty, Object> refillSignals;
+    private final List<Thread> refillers;
+    private final int lowWaterMark;
+    private final Path file;
+    private volatile boolean running;
+
+    /**
+     * Constructor
+     * @param capacity  maximum number of boards kept for each difficulty
+     * @param lowWaterMark  number of boards below which the pool of a difficulty is refilled to capacity
+     * @param file  file the pool is persisted to
+     */
+    public PuzzlePool(int capacity, int lowWaterMark, Path file) {
+        this.pools = new EnumMap<>(Difficulty.class);
+        this.refillSignals = new EnumMap<>(Difficulty.class);
+        this.refillers = new ArrayList<>();
+        this.lowWaterMark = Math.min(lowWaterMark, capacity);
+        this.file = file;
+        for(Difficulty difficulty : Difficulty.values()) {
+            pools.put(difficulty, new ArrayBlockingQueue<>(capacity));
+            refillSignals.put(difficulty, new Object());
+        }
+    }
+
+    /**
+     * Loads the boards persisted by the previous run and starts a refilling thread for each difficulty
+     */
+    public void start() {
+        load();
+        running = true;
+        for(Difficulty difficulty : Difficulty.values()) {
+            Thread refiller = new Thread(() -> refill(difficulty), "puzzle-pool-" + difficulty.getName());
+            refiller.setDaemon(true);
+            refiller.start();
+            refillers.add(refiller);
+        }
+    }
+
+    /**
+     * Stops the refilling threads and writes the remaining boards to disk
+     */
+    public void stop() {
+        running = false;
+        for(Difficulty difficulty : Difficulty.values()) {
+            Object signal = refillSignals.get(difficulty);
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+        for(Thread refiller : refillers) {
+            try {
+                refiller.join();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        refillers.clear();
+        persist();
+    }
+
+    /**
+     * Takes a ready board from the pool, generating one straight away only if the pool is empty
+     * @param difficulty    level of difficulty
+     * @return  ready-to-play board
+     */
+    public Board take(Difficulty difficulty) {
+        BlockingQueue<String> pool = pools.get(difficulty);
+        String puzzle = pool.poll();
+        // wake up the refilling thread once the pool runs low
+        if(pool.size() < lowWaterMark) {
+            Object signal = refillSignals.get(difficulty);
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+        Board board = new Board();
+        if(puzzle == null) {
+            board.generate(difficulty);
+        }
+        else {
+            board.readInPuzzle(puzzle);
+        }
+        return board;
+    }
+
+    /**
+     * Returns how many boards of a difficulty are ready
+     * @param difficulty    level of difficulty
+     * @return  number of boards in the pool
+     */
+    public int size(Difficulty difficulty) {
+        return pools.get(difficulty).size();
+    }
+
+    /**
+     * Background loop filling the pool of a difficulty back to capacity whenever it drops below the low-water mark
+     * @param difficulty    level of difficulty
+     */
+    private void refill(Difficulty difficulty) {
+        BlockingQueue<String> pool = pools.get(difficulty);
+        Object signal = refillSignals.get(difficulty);
+        Board board = new Board();
+        while(running) {
+            synchronized (signal) {
+                while(running && pool.size() >= lowWaterMark) {
+                    try {
+                        signal.wait();
+                    }
+                    catch (InterruptedException ex) {
+                        return;
+                    }
+                }
+            }
+            boolean added = false;
+            while(running && pool.remainingCapacity() > 0) {
+                board.generate(difficulty);
+                added |= pool.offer(board.puzzleToString() + ' ' + board.getScore());
+            }
+            // keep the file up to date so that a crash still leaves boards for a cold start
+            if(added) {
+                persist();
+            }
+        }
+    }
+
+    /**
+     * Reads the boards written by persist() back into the pools
+     */
+    private void load() {
+        if(!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                // each line has the form "level puzzle score", older files have no score
+                int space = line.indexOf(' ');
+                int end = space == -1 ? -1 : line.indexOf(' ', space + 1);
+                if(end == -1) {
+                    end = line.length();
+                }
+                if(space == -1 || end - space - 1 != 2 * CELLS || !isScore(line, end)) {
+                    continue;
+                }
+                for(Difficulty difficulty : Difficulty.values()) {
+                    if(line.regionMatches(0, difficulty.getName(), 0, space) && difficulty.getName().length() == space) {
+                        pools.get(difficulty).offer(line.substring(space + 1));
+                    }
+                }
+            }
+        }
+        catch (IOException ex) {
+            System.out.println("Could not read the puzzle pool");
+        }
+    }
+
+    /**
+     * Checks that a pool file line either ends after the puzzle or has a valid score after it
+     * @param line  line from the pool file
+     * @param end   position right after the puzzle
+     * @return  true if the line can be used
+     */
+    private static boolean isScore(String line, int end) {
+        if(end == line.length()) {
+            return true;
+        }
+        try {
+            return Integer.parseInt(line, end + 1, line.length(), 10) >= 0;
+        }
+        catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes all boards in the pools to the pool file, replacing it atomically
+     */
+    private synchronized void persist() {
+        try {
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.US_ASCII)) {
+                for(Map.Entry<Difficulty, BlockingQueue<String>> entry : pools.entrySet()) {
+                    for(String puzzle : entry.getValue()) {
+                        writer.write(entry.getKey().getName());
+                        writer.write(' ');
+                        writer.write(puzzle);
+                        writer.newLine();
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException ex) {
+            System.out.println("Could not save the puzzle pool");
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.napier.sudoku;
+
+/**
+ * Replays the moves of a game on its own copy of the initial board.
+ * A snapshot of the board is kept every few moves, so seeking to any move only has to apply
+ * the moves since the nearest snapshot. Stepping backwards reverts a single move.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class ReplayEngine {
+    static final int DEFAULT_CHECKPOINT_INTERVAL = 64;
+
+    private final int size;
+    private final int[][] board;    // board after the first 'position' moves
+    private final MoveDeque moves;
+    private final int checkpointInterval;
+    private final byte[][] checkpoints; // checkpoints[i] is the board after i * checkpointInterval moves
+    private int position;
+
+    /**
+     * Constructor
+     * @param initialBoard  board at the start of the game, copied
+     * @param moves all moves of the game in the order they were made
+     */
+    public ReplayEngine(int[][] initialBoard, MoveDeque moves) {
+        this(initialBoard, moves, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Constructor
+     * @param initialBoard  board at the start of the game, copied
+     * @param moves all moves of the game in the order they were made
+     * @param checkpointInterval    number of moves between snapshots
+     */
+    public ReplayEngine(int[][] initialBoard, MoveDeque moves, int checkpointInterval) {
+        this.size = initialBoard.length;
+        this.board = new int[size][];
+        for(int i = 0; i < size; i++) {
+            this.board[i] = initialBoard[i].clone();
+        }
+        this.moves = moves;
+        this.checkpointInterval = checkpointInterval;
+        this.checkpoints = new byte[moves.size() / checkpointInterval + 1][];
+
+        // walk through all moves once, taking a snapshot every checkpointInterval moves
+        checkpoints[0] = snapshot();
+        for(int i = 0; i < moves.size(); i++) {
+            apply(moves.get(i));
+            if((i + 1) % checkpointInterval == 0) {
+                checkpoints[(i + 1) / checkpointInterval] = snapshot();
+            }
+        }
+        position = moves.size();
+        seek(0);
+    }
+
+    /**
+     * Moves the replay to the board after a given number of moves
+     * @param moveNumber    number of moves to have applied (0 for the initial board)
+     */
+    public void seek(int moveNumber) {
+        if(moveNumber < 0 || moveNumber > moves.size()) {
+            throw new IndexOutOfBoundsException(moveNumber);
+        }
+        // going forward a little is cheaper than restoring a snapshot
+        if(moveNumber < position || moveNumber - position > checkpointInterval) {
+            int checkpoint = moveNumber / checkpointInterval;
+            restore(checkpoints[checkpoint]);
+            position = checkpoint * checkpointInterval;
+        }
+        while(position < moveNumber) {
+            apply(moves.get(position++));
+        }
+    }
+
+    /**
+     * Applies the next move
+     * @return  false if there are no moves left
+     */
+    public boolean stepForward() {
+        if(position == moves.size()) {
+            return false;
+        }
+        apply(moves.get(position++));
+        return true;
+    }
+
+    /**
+     * Reverts the last applied move
+     * @return  false if already at the initial board
+     */
+    public boolean stepBack() {
+        if(position == 0) {
+            return false;
+        }
+        int move = moves.get(--position);
+        board[Move.row(move) - 1][Move.column(move) - 1] = Move.oldValue(move);
+        return true;
+    }
+
+    /**
+     * Returns the number of moves applied so far
+     * @return  current move number
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns the total number of moves in the replay
+     * @return  number of moves
+     */
+    public int getMoveCount() {
+        return moves.size();
+    }
+
+    /**
+     * Returns the last applied move
+     * @return  packed move, or 0 at the initial board
+     */
+    public int getCurrentMove() {
+        return position == 0 ? 0 : moves.get(position - 1);
+    }
+
+    /**
+     * Returns the replay board at the current position. The array is owned by the engine and
+     * changes as the replay moves, so it should only be read.
+     * @return  current board
+     */
+    public int[][] getBoard() {
+        return board;
+    }
+
+    /**
+     * Sets a cell to the new value of a move
+     * @param move  packed move
+     */
+    private void apply(int move) {
+        board[Move.row(move) - 1][Move.column(move) - 1] = Move.newValue(move);
+    }
+
+    /**
+     * Copies the current board into a snapshot, one byte per cell
+     * @return  snapshot
+     */
+    private byte[] snapshot() {
+        byte[] snapshot = new byte[size * size];
+        for(int i = 0; i < size; i++) {
+            for(int j = 0; j < size; j++) {
+                snapshot[i * size + j] = (byte) board[i][j];
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Copies a snapshot back into the current board
+     * @param snapshot  snapshot taken by snapshot()
+     */
+    private void restore(byte[] snapshot) {
+        for(int i = 0; i < size; i++) {
+            for(int j = 0; j < size; j++) {
+                board[i][j] = snapshot[i * size + j];
+            }
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.napier.sudoku;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Persistent index of the game saves in a directory, so that the saves don't have to be listed and opened
+ * to show the load menu.
+ * Every change is appended to the catalog file as one line (id, level, created, updated, filled cells, clues used,
+ * board size, score), the last line for an id wins. Lines written before boards could have other sizes have no
+ * size and are 9x9, and lines written before puzzles were graded have no score. The file is rewritten once it
+ * holds many outdated lines.
+ * If there is no catalog yet, it is built once from the save files in the directory.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class SaveCatalog {
+    static final String FILE_NAME = "catalog.idx";
+    private static final String SEPARATOR = "\t";
+    private static final int DEFAULT_SIZE = CandidateGrid.layout(CandidateGrid.DEFAULT_BOX_SIZE).size;  // size of saves from before other sizes
+
+    /**
+     * Orders in which the saves can be listed
+     */
+    public enum SortKey {
+        UPDATED(Comparator.comparingLong(Entry::getUpdated).reversed()),
+        CREATED(Comparator.comparingLong(Entry::getCreated).reversed()),
+        LEVEL(Comparator.comparing(Entry::getLevel).thenComparing(Comparator.comparingLong(Entry::getUpdated).reversed())),
+        PROGRESS(Comparator.comparingInt(Entry::getFilledCells).reversed().thenComparing(Entry::getId));
+
+        private final Comparator<Entry> order;
+
+        SortKey(Comparator<Entry> order) {
+            this.order = order;
+        }
+    }
+
+    /**
+     * Catalog information about one save
+     */
+    public static class Entry {
+        private final String id;
+        private final String level;
+        private final long created;
+        private final long updated;
+        private final int filledCells;
+        private final int cluesUsed;
+        private final int size;
+        private final int score;
+
+        /**
+         * Constructor
+         * @param id    file name of the save
+         * @param level level of difficulty
+         * @param created   time the game was started (epoch milliseconds)
+         * @param updated   time the game was last saved (epoch milliseconds)
+         * @param filledCells   number of filled cells in the playing board
+         * @param cluesUsed number of clues used
+         * @param size  number of rows of the board
+         * @param score grader score of the puzzle, -1 if unknown
+         */
+        public Entry(String id, String level, long created, long updated, int filledCells, int cluesUsed, int size,
+                     int score) {
+            this.id = id;
+            this.level = level;
+            this.created = created;
+            this.updated = updated;
+            this.filledCells = filledCells;
+            this.cluesUsed = cluesUsed;
+            this.size = size;
+            this.score = score;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getLevel() {
+            return level;
+        }
+
+        public long getCreated() {
+            return created;
+        }
+
+        public long getUpdated() {
+            return updated;
+        }
+
+        public int getFilledCells() {
+            return filledCells;
+        }
+
+        public int getCluesUsed() {
+            return cluesUsed;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getScore() {
+            return score;
+        }
+    }
+
+    private final Path directory;
+    private final Path file;
+    private final Map<String, Entry> entries;
+    private final Map<SortKey, List<Entry>> sorted;    // sorted views, dropped whenever an entry changes
+    private int lines;  // lines in the catalog file, including outdated ones
+
+    /**
+     * Constructor - loads the catalog of a saves directory, building it if it doesn't exist yet
+     * @param directory directory with the saves
+     */
+    public SaveCatalog(Path directory) throws IOException {
+        this.directory = directory;
+        this.file = directory.resolve(FILE_NAME);
+        this.entries = new HashMap<>();
+        this.sorted = new EnumMap<>(SortKey.class);
+        Files.createDirectories(directory);
+        if(Files.exists(file)) {
+            load();
+        }
+        else {
+            rebuild();
+        }
+    }
+
+    /**
+     * Adds or updates the entry of a save
+     * @param entry entry to store
+     */
+    public synchronized void put(Entry entry) throws IOException {
+        entries.put(entry.id, entry);
+        sorted.clear();
+        // rewrite the file once most of it is outdated, otherwise just append
+        if(lines > 2 * entries.size() + 64) {
+            compact();
+        }
+        else {
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(format(entry));
+                writer.newLine();
+            }
+            lines++;
+        }
+    }
+
+    /**
+     * Returns the entry of a save
+     * @param id    file name of the save
+     * @return  entry or null if the save is not in the catalog
+     */
+    public synchronized Entry get(String id) {
+        return entries.get(id);
+    }
+
+    /**
+     * Returns the number of saves in the catalog
+     * @return  number of saves
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns one page of saves in the given order
+     * @param sortKey   order of the saves
+     * @param page  page number, starting from 0
+     * @param pageSize  number of saves on a page
+     * @return  saves on the page, empty if the page is past the end
+     * @throws IllegalArgumentException if the page is negative or the page size isn't positive
+     */
+    public synchronized List<Entry> query(SortKey sortKey, int page, int pageSize) {
+        if(page < 0 || pageSize <= 0) {
+            throw new IllegalArgumentException("Invalid page " + page + " of size " + pageSize);
+        }
+        List<Entry> all = sorted.get(sortKey);
+        if(all == null) {
+            all = new ArrayList<>(entries.values());
+            all.sort(sortKey.order);
+            sorted.put(sortKey, all);
+        }
+        int from = (int) Math.min((long) page * pageSize, all.size());
+        int to = Math.min(from + pageSize, all.size());
+        return Collections.unmodifiableList(new ArrayList<>(all.subList(from, to)));
+    }
+
+    /**
+     * Returns the path of a save in the catalog
+     * @param entry entry of the save
+     * @return  path to the save file
+     */
+    public Path resolve(Entry entry) {
+        return directory.resolve(entry.id);
+    }
+
+    /**
+     * Reads the catalog file
+     */
+    private void load() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                lines++;
+                Entry entry = parse(line);
+                if(entry != null) {
+                    entries.put(entry.id, entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the catalog from the save files in the directory. Only needed once, for saves made before the catalog.
+     */
+    private void rebuild() throws IOException {
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("ddMMyyyyHHmm");
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for(Path save : stream) {
+                String name = save.getFileName().toString();
+                if(name.equals(FILE_NAME) || name.endsWith(".journal") || name.endsWith(".tmp")
+                        || name.endsWith(".idle")) {
+                    continue;
+                }
+                try {
+                    // file names have the form ddMMyyyy_HHmm_level.extension
+                    String[] split = name.split("\\.")[0].split("_");
+                    long created = LocalDateTime.parse(split[0] + split[1], format)
+                            .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                    SaveData data = SaveCodec.read(save);
+                    new MoveJournal(save).replay(data);
+                    entries.put(name, new Entry(name, split[2], created, Files.getLastModifiedTime(save).toMillis(),
+                            data.getBoard().countFilledCells(), data.getCluesUsed(), data.getBoard().getSize(),
+                            data.getBoard().getScore()));
+                }
+                catch (Exception ex) {
+                    // not a save or unreadable - leave it out of the catalog
+                }
+            }
+        }
+        compact();
+    }
+
+    /**
+     * Rewrites the catalog file with only the current entries
+     */
+    private void compact() throws IOException {
+        Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for(Entry entry : entries.values()) {
+                writer.write(format(entry));
+                writer.newLine();
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lines = entries.size();
+    }
+
+    /**
+     * Converts an entry to a catalog line
+     * @param entry entry to convert
+     * @return  catalog line
+     */
+    private static String format(Entry entry) {
+        return entry.id + SEPARATOR + entry.level + SEPARATOR + entry.created + SEPARATOR + entry.updated
+                + SEPARATOR + entry.filledCells + SEPARATOR + entry.cluesUsed + SEPARATOR + entry.size + SEPARATOR + entry.score;
+    }
+
+    /**
+     * Reads an entry from a catalog line
+     * @param line  catalog line
+     * @return  entry or null if the line is broken (e.g. torn by a crash)
+     */
+    private static Entry parse(String line) {
+        String[] split = line.split(SEPARATOR);
+        // older catalogs have no size or score
+        if(split.length < 6 || split.length > 8) {
+            return null;
+        }
+        try {
+            int size = split.length >= 7 ? Integer.parseInt(split[6]) : DEFAULT_SIZE;
+            int score = split.length == 8 ? Integer.parseInt(split[7]) : -1;
+            return new Entry(split[0], split[1], Long.parseLong(split[2]), Long.parseLong(split[3]),
+                    Integer.parseInt(split[4]), Integer.parseInt(split[5]), size, score);
+        }
+        catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package com.napier.sudoku;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes game saves.
+ * Saves are written in a versioned binary format:
+ *   magic "SDKU", version, board size, clues used, grader score plus one (0 if not graded),
+ *   givens bitmap (1 bit per cell), complete board and playing board,
+ *   number of moves, undone moves and queued moves (int each) followed by the moves,
+ *   CRC32 of everything before it.
+ * Boards up to 15x15 store 4 bits per cell and one short per move, larger boards one byte per cell
+ * and one int per move. Version 2 saves are the same, but store the score itself, so a score of 0 reads as not
+ * graded. Version 1 saves are like version 2 ones, but always 9x9.
+ * Saves in the old 7-line text format can still be read.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class SaveCodec {
+    static final int MAGIC = 0x53444B55;    // "SDKU"
+    static final byte VERSION = 3;
+    private static final int MAX_NIBBLE_SIZE = 15;  // largest board that fits 4 bits per cell
+    private static final int HEADER_BYTES = 8;
+    private static final int TEXT_LINES = 7;
+
+    private SaveCodec() {
+    }
+
+    /**
+     * Writes a save in the binary format, replacing the file contents.
+     * The save is written to a temporary file first so that a crash never leaves a half-written save.
+     * @param file  file to write to
+     * @param data  game to save
+     * @return  number of bytes written
+     */
+    public static int write(Path file, SaveData data) throws IOException {
+        ByteBuffer buffer = encode(data);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return buffer.limit();
+    }
+
+    /**
+     * Reads the checksum stored at the end of a binary save
+     * @param file  save file
+     * @return  CRC32 of the save, or 0 if the file is not a binary save
+     */
+    static int checksum(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size < 8) {
+                return 0;
+            }
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            ByteBuffer crc = ByteBuffer.allocate(4);
+            channel.read(magic, 0);
+            channel.read(crc, size - 4);
+            return magic.getInt(0) == MAGIC ? crc.getInt(0) : 0;
+        }
+    }
+
+    /**
+     * Reads a save in either the binary or the old text format
+     * @param file  file to read
+     * @return  game stored in the file
+     */
+    public static SaveData read(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size > Integer.MAX_VALUE) {
+                throw new IOException("Save file too large");
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while(buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // keep reading until the whole file is in the buffer
+            }
+            buffer.flip();
+        }
+        if(buffer.remaining() >= 4 && buffer.getInt(0) == MAGIC) {
+            return decode(buffer);
+        }
+        return readText(file);
+    }
+
+    /**
+     * Encodes a save in the binary format
+     * @param data  game to save
+     * @return  buffer ready to be written
+     */
+    static ByteBuffer encode(SaveData data) {
+        Board board = data.board;
+        int size = board.getSize();
+        int cells = size * size;
+        boolean small = size <= MAX_NIBBLE_SIZE;
+        int moveCount = data.moves.size() + data.undoneMoves.size() + data.movesQueue.size();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + bitmapBytes(cells) + 2 * boardBytes(size) + 12
+                + moveBytes(size) * moveCount + 4);
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.put((byte) size);
+        buffer.put((byte) data.cluesUsed);
+        // scores go up to DifficultyGrader.MAX_SCORE, so the score plus one still fits in a byte
+        buffer.put((byte) (board.getScore() + 1));
+
+        // givens bitmap - the given values themselves are taken from the complete board
+        byte[] bitmap = new byte[bitmapBytes(cells)];
+        for(int cell = 0; cell < cells; cell++) {
+            if(board.initialBoard[cell / size][cell % size] != 0) {
+                bitmap[cell >> 3] |= (byte) (1 << (cell & 7));
+            }
+        }
+        buffer.put(bitmap);
+        putCells(buffer, board.completeBoard);
+        putCells(buffer, board.board);
+
+        buffer.putInt(data.moves.size());
+        buffer.putInt(data.undoneMoves.size());
+        buffer.putInt(data.movesQueue.size());
+        for(int i = 0; i < data.moves.size(); i++) {
+            putMove(buffer, data.moves.get(i), small);
+        }
+        for(int i = 0; i < data.undoneMoves.size(); i++) {
+            putMove(buffer, data.undoneMoves.get(i), small);
+        }
+        for(int i = 0; i < data.movesQueue.size(); i++) {
+            putMove(buffer, data.movesQueue.get(i), small);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Decodes a save in the binary format, checking its version and checksum
+     * @param buffer    contents of the save file
+     * @return  game stored in the buffer
+     */
+    static SaveData decode(ByteBuffer buffer) throws IOException {
+        int length = buffer.remaining();
+        if(length < HEADER_BYTES + 4) {
+            throw new IOException("Save file truncated");
+        }
+        CRC32 crc = new CRC32();
+        ByteBuffer checked = buffer.duplicate();
+        checked.limit(length - 4);
+        crc.update(checked);
+        if((int) crc.getValue() != buffer.getInt(length - 4)) {
+            throw new IOException("Save file corrupted (checksum mismatch)");
+        }
+
+        buffer.getInt();    // magic, already checked
+        byte version = buffer.get();
+        if(version > VERSION) {
+            throw new IOException("Unsupported save version " + version);
+        }
+        int size = buffer.get();
+        int boxSize = (int) Math.sqrt(size);
+        if(boxSize * boxSize != size || boxSize < CandidateGrid.MIN_BOX_SIZE || boxSize > CandidateGrid.MAX_BOX_SIZE
+                || (version == 1 && size != 9)) {
+            throw new IOException("Unsupported board size");
+        }
+        int cells = size * size;
+        boolean small = size <= MAX_NIBBLE_SIZE;
+        if(length < HEADER_BYTES + bitmapBytes(cells) + 2 * boardBytes(size) + 16) {
+            throw new IOException("Save file truncated");
+        }
+        SaveData data = new SaveData(boxSize);
+        data.cluesUsed = buffer.get();
+        int score = buffer.get() & 0xFF;    // reserved in saves made before grading
+        // 0 is "not graded" - version 3 stores the score plus one, older versions the score itself
+        score = score == 0 ? -1 : version >= 3 ? score - 1 : score;
+
+        byte[] bitmap = new byte[bitmapBytes(cells)];
+        buffer.get(bitmap);
+        Board board = data.board;
+        getCells(buffer, board.completeBoard);
+        getCells(buffer, board.board);
+        for(int cell = 0; cell < cells; cell++) {
+            boolean given = (bitmap[cell >> 3] & (1 << (cell & 7))) != 0;
+            board.initialBoard[cell / size][cell % size] = given ? board.completeBoard[cell / size][cell % size] : 0;
+        }
+        board.recount();
+        board.score = score;
+
+        int moves = buffer.getInt();
+        int undoneMoves = buffer.getInt();
+        int queuedMoves = buffer.getInt();
+        if(moves < 0 || undoneMoves < 0 || queuedMoves < 0
+                || (long) moveBytes(size) * (moves + undoneMoves + queuedMoves) != buffer.remaining() - 4) {
+            throw new IOException("Save file corrupted (bad move counts)");
+        }
+        for(int i = 0; i < moves; i++) {
+            data.moves.push(getMove(buffer, small));
+        }
+        for(int i = 0; i < undoneMoves; i++) {
+            data.undoneMoves.push(getMove(buffer, small));
+        }
+        for(int i = 0; i < queuedMoves; i++) {
+            data.movesQueue.addLast(getMove(buffer, small));
+        }
+        return data;
+    }
+
+    /**
+     * Reads a save in the old text format - three boards, three move lists and the number of clues used
+     * @param file  file to read
+     * @return  game stored in the file
+     */
+    static SaveData readText(Path file) throws IOException {
+        String[] contents = new String[TEXT_LINES];
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for(int i = 0; i < TEXT_LINES; i++) {
+                contents[i] = br.readLine();
+                if(contents[i] == null) {
+                    throw new IOException("Save file truncated");
+                }
+            }
+        }
+        SaveData data = new SaveData();
+        try {
+            // read in the boards
+            data.board.readInBoard(contents[0], 1);
+            data.board.readInBoard(contents[1], 2);
+            data.board.readInBoard(contents[2], 3);
+            // read in the moves
+            for(int move : parseMoves(contents[3])) {
+                data.moves.push(move);
+            }
+            for(int move : parseMoves(contents[4])) {
+                data.undoneMoves.push(move);
+            }
+            for(int move : parseMoves(contents[5])) {
+                data.movesQueue.addLast(move);
+            }
+            // read in the number of clues used
+            data.cluesUsed = Integer.parseInt(contents[6]);
+        }
+        catch (RuntimeException ex) {
+            throw new IOException("Save file corrupted", ex);
+        }
+        return data;
+    }
+
+    /**
+     * Reads a line of space-separated moves from a text save
+     * @param line  line from a text save
+     * @return  packed moves in the order they appear
+     */
+    private static int[] parseMoves(String line) {
+        int[] moves = new int[(line.length() + 1) / 5];
+        int count = 0;
+        int start = 0;
+        while(start + 4 <= line.length()) {
+            if(line.charAt(start) == ' ') {
+                start++;
+                continue;
+            }
+            moves[count++] = Move.fromText(line.subSequence(start, start + 4));
+            start += 4;
+        }
+        return Arrays.copyOf(moves, count);
+    }
+
+    /**
+     * Returns the size of the givens bitmap
+     * @param cells number of cells of the board
+     * @return  number of bytes
+     */
+    private static int bitmapBytes(int cells) {
+        return (cells + 7) / 8;
+    }
+
+    /**
+     * Returns the number of bytes a board takes
+     * @param size  number of rows of the board
+     * @return  number of bytes
+     */
+    private static int boardBytes(int size) {
+        int cells = size * size;
+        return size <= MAX_NIBBLE_SIZE ? (cells + 1) / 2 : cells;
+    }
+
+    /**
+     * Returns the number of bytes a move takes
+     * @param size  number of rows of the board
+     * @return  number of bytes
+     */
+    private static int moveBytes(int size) {
+        return size <= MAX_NIBBLE_SIZE ? 2 : 4;
+    }
+
+    /**
+     * Writes a move as a short on small boards and as an int on large boards
+     * @param buffer    buffer to write to
+     * @param move  packed move
+     * @param small true if the board is up to 15x15
+     */
+    private static void putMove(ByteBuffer buffer, int move, boolean small) {
+        if(small) {
+            buffer.putShort(Move.toShort(move));
+        }
+        else {
+            buffer.putInt(move);
+        }
+    }
+
+    /**
+     * Reads a move written by putMove
+     * @param buffer    buffer to read from
+     * @param small true if the board is up to 15x15
+     * @return  packed move
+     */
+    private static int getMove(ByteBuffer buffer, boolean small) {
+        return small ? Move.fromShort(buffer.getShort()) : buffer.getInt();
+    }
+
+    /**
+     * Writes the values of a board, two cells per byte on small boards and one cell per byte on large boards
+     * @param buffer    buffer to write to
+     * @param grid  board to write
+     */
+    private static void putCells(ByteBuffer buffer, int[][] grid) {
+        int size = grid.length;
+        int cells = size * size;
+        if(size > MAX_NIBBLE_SIZE) {
+            for(int cell = 0; cell < cells; cell++) {
+                buffer.put((byte) grid[cell / size][cell % size]);
+            }
+            return;
+        }
+        for(int cell = 0; cell < cells; cell += 2) {
+            int high = grid[cell / size][cell % size];
+            int low = cell + 1 < cells ? grid[(cell + 1) / size][(cell + 1) % size] : 0;
+            buffer.put((byte) ((high << 4) | low));
+        }
+    }
+
+    /**
+     * Reads the values of a board written by putCells
+     * @param buffer    buffer to read from
+     * @param grid  board to fill in
+     */
+    private static void getCells(ByteBuffer buffer, int[][] grid) throws IOException {
+        int size = grid.length;
+        int cells = size * size;
+        if(size > MAX_NIBBLE_SIZE) {
+            for(int cell = 0; cell < cells; cell++) {
+                grid[cell / size][cell % size] = checkValue(buffer.get() & 0xFF, size);
+            }
+            return;
+        }
+        for(int cell = 0; cell < cells; cell += 2) {
+            int packed = buffer.get() & 0xFF;
+            grid[cell / size][cell % size] = checkValue(packed >> 4, size);
+            if(cell + 1 < cells) {
+                grid[(cell + 1) / size][(cell + 1) % size] = checkValue(packed & 0xF, size);
+            }
+        }
+    }
+
+    /**
+     * Checks that a value read from a save fits on the board
+     * @param value value read
+     * @param size  largest value allowed
+     * @return  the value
+     */
+    private static int checkValue(int value, int size) throws IOException {
+        if(value > size) {
+            throw new IOException("Save file corrupted (bad cell value)");
+        }
+        return value;
+    }
+}
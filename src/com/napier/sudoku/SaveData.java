@@ -0,0 +1,67 @@
+package com.napier.sudoku;
+
+import java.util.Random;
+
+/**
+ * Class holding everything stored in a game save
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class SaveData {
+    Board board;    // complete, initial and playing boards
+    MoveStack moves;
+    MoveStack undoneMoves;
+    MoveDeque movesQueue;   // all moves in the order they were made
+    int cluesUsed;
+
+    /**
+     * Constructor
+     * @param board board of the game
+     * @param moves moves stack
+     * @param undoneMoves   undone moves stack
+     * @param movesQueue    all moves in the order they were made
+     * @param cluesUsed     number of clues used
+     */
+    public SaveData(Board board, MoveStack moves, MoveStack undoneMoves, MoveDeque movesQueue, int cluesUsed) {
+        this.board = board;
+        this.moves = moves;
+        this.undoneMoves = undoneMoves;
+        this.movesQueue = movesQueue;
+        this.cluesUsed = cluesUsed;
+    }
+
+    /**
+     * Constructor for an empty 9x9 save that is filled in while reading
+     */
+    SaveData() {
+        this(CandidateGrid.DEFAULT_BOX_SIZE);
+    }
+
+    /**
+     * Constructor for an empty save that is filled in while reading
+     * @param boxSize   size of a box of the saved board
+     */
+    SaveData(int boxSize) {
+        this(new Board(boxSize, new Random()), new MoveStack(), new MoveStack(), new MoveDeque(), 0);
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public MoveStack getMoves() {
+        return moves;
+    }
+
+    public MoveStack getUndoneMoves() {
+        return undoneMoves;
+    }
+
+    public MoveDeque getMovesQueue() {
+        return movesQueue;
+    }
+
+    public int getCluesUsed() {
+        return cluesUsed;
+    }
+}
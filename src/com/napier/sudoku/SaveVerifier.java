@@ -0,0 +1,233 @@
+package com.napier.sudoku;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Headless batch mode checking every save in a directory, in parallel.
+ * Each save is loaded the same way as in the game (snapshot plus journal), but without repairing the journal,
+ * and checked that:
+ *   the journal ends with a good record, with no torn or corrupted bytes after it,
+ *   the complete board is a valid sudoku grid,
+ *   the givens of the initial board agree with the complete board,
+ *   replaying the moves queue from the initial board gives the stored playing board.
+ * The report is printed as tab-separated lines: file, status (OK, INVALID or UNREADABLE) and the problems found,
+ * followed by a summary line starting with #.
+ * Usage: SaveVerifier [savesDirectory] [threads]
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class SaveVerifier {
+    /**
+     * Result of checking one save
+     */
+    static class Result {
+        final String file;
+        final String status;
+        final String problems;
+
+        Result(String file, String status, String problems) {
+            this.file = file;
+            this.status = status;
+            this.problems = problems;
+        }
+    }
+
+    /**
+     * Driver code
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "saves");
+        int threads = Runtime.getRuntime().availableProcessors();
+        if(args.length > 1) {
+            try {
+                threads = Integer.parseInt(args[1]);
+            }
+            catch (NumberFormatException ex) {
+                System.out.println("The number of threads must be a whole number");
+                return;
+            }
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for(Path file : stream) {
+                String name = file.getFileName().toString();
+                if(!name.equals(SaveCatalog.FILE_NAME) && !name.endsWith(".journal") && !name.endsWith(".tmp")
+                        && !name.endsWith(".idx") && !name.endsWith(".idle")) {
+                    files.add(file);
+                }
+            }
+        }
+        catch (IOException ex) {
+            System.out.println("Could not read the saves directory: " + ex.getMessage());
+            System.exit(2);
+        }
+        Collections.sort(files);
+
+        List<Result> results;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            results = pool.submit(() -> files.parallelStream().map(SaveVerifier::verify).toList()).get();
+        }
+        catch (ExecutionException ex) {
+            System.out.println("Verification failed: " + ex.getCause());
+            System.exit(2);
+            return;
+        }
+        finally {
+            pool.shutdown();
+        }
+
+        // print the report
+        StringBuilder report = new StringBuilder();
+        int ok = 0;
+        int invalid = 0;
+        int unreadable = 0;
+        for(Result result : results) {
+            report.append(result.file).append('\t').append(result.status).append('\t').append(result.problems).append('\n');
+            switch (result.status) {
+                case "OK" -> ok++;
+                case "INVALID" -> invalid++;
+                default -> unreadable++;
+            }
+        }
+        report.append("# checked=").append(results.size()).append(" ok=").append(ok)
+                .append(" invalid=").append(invalid).append(" unreadable=").append(unreadable).append('\n');
+        System.out.print(report);
+        System.exit(invalid + unreadable == 0 ? 0 : 1);
+    }
+
+    /**
+     * Loads and checks one save
+     * @param file  save file
+     * @return  result of the checks
+     */
+    static Result verify(Path file) {
+        String name = file.getFileName().toString();
+        SaveData data;
+        long tornBytes;
+        try {
+            data = SaveCodec.read(file);
+            // read-only - the journal is reported on as it is, never repaired
+            tornBytes = new MoveJournal(file).replay(data);
+        }
+        catch (Exception ex) {
+            return new Result(name, "UNREADABLE", String.valueOf(ex.getMessage()).replace('\t', ' '));
+        }
+
+        List<String> problems = new ArrayList<>();
+        if(tornBytes > 0) {
+            problems.add("journal has " + tornBytes + " torn or corrupted bytes after the last good record");
+        }
+        Board board = data.getBoard();
+        if(!isValidGrid(board.completeBoard)) {
+            problems.add("complete board is not a valid grid");
+        }
+        if(!givensMatch(board.initialBoard, board.completeBoard)) {
+            problems.add("givens differ from the complete board");
+        }
+        if(!replayMatches(board.initialBoard, data.getMovesQueue(), board.board)) {
+            problems.add("replaying the moves does not give the saved board");
+        }
+        if(problems.isEmpty()) {
+            return new Result(name, "OK", "");
+        }
+        return new Result(name, "INVALID", String.join("; ", problems));
+    }
+
+    /**
+     * Checks that every row, column and box contains each value exactly once
+     * @param grid  board to check
+     * @return  if the board is a valid complete grid
+     */
+    static boolean isValidGrid(int[][] grid) {
+        int size = grid.length;
+        int boxSize = (int) Math.sqrt(size);
+        int allValues = (1 << size) - 1;
+        for(int unit = 0; unit < size; unit++) {
+            int rowMask = 0;
+            int columnMask = 0;
+            int boxMask = 0;
+            for(int i = 0; i < size; i++) {
+                int boxRow = (unit / boxSize) * boxSize + i / boxSize;
+                int boxColumn = (unit % boxSize) * boxSize + i % boxSize;
+                rowMask |= bit(grid[unit][i], size);
+                columnMask |= bit(grid[i][unit], size);
+                boxMask |= bit(grid[boxRow][boxColumn], size);
+            }
+            if(rowMask != allValues || columnMask != allValues || boxMask != allValues) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that all givens have the value of the complete board
+     * @param initial   initial board
+     * @param complete  complete board
+     * @return  if the givens agree
+     */
+    static boolean givensMatch(int[][] initial, int[][] complete) {
+        for(int i = 0; i < initial.length; i++) {
+            for(int j = 0; j < initial.length; j++) {
+                if(initial[i][j] != 0 && initial[i][j] != complete[i][j]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replays the moves queue on a copy of the initial board and compares it to the saved board
+     * @param initial   initial board
+     * @param movesQueue    all moves in the order they were made
+     * @param saved saved playing board
+     * @return  if the replayed board is the saved board
+     */
+    static boolean replayMatches(int[][] initial, MoveDeque movesQueue, int[][] saved) {
+        int size = initial.length;
+        int[][] replayed = new int[size][];
+        for(int i = 0; i < size; i++) {
+            replayed[i] = initial[i].clone();
+        }
+        for(int i = 0; i < movesQueue.size(); i++) {
+            int move = movesQueue.get(i);
+            int row = Move.row(move) - 1;
+            int column = Move.column(move) - 1;
+            // moves can never touch a given or leave the board
+            if(row < 0 || row >= size || column < 0 || column >= size || initial[row][column] != 0) {
+                return false;
+            }
+            replayed[row][column] = Move.newValue(move);
+        }
+        for(int i = 0; i < size; i++) {
+            for(int j = 0; j < size; j++) {
+                if(replayed[i][j] != saved[i][j]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the bitmask bit of a value
+     * @param value value (1 to size), anything else gives no bit
+     * @param size  largest value allowed
+     * @return  bit (value - 1) or 0
+     */
+    private static int bit(int value, int size) {
+        return value >= 1 && value <= size ? 1 << (value - 1) : 0;
+    }
+}
@@ -0,0 +1,368 @@
+package com.napier.sudoku;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Store of the game sessions of all connected players, keeping the heap they use within a memory budget.
+ * Once the active sessions go over the budget, the least recently used ones that aren't in use are passivated:
+ * sessions with their progress saved are simply dropped and reloaded from the save, the others are written to
+ * a file next to the save (ending in .idle) so that the save itself only changes when the player saves.
+ * Passivated sessions are opened again transparently the next time they are acquired.
+ * Files are only read and written outside the store's lock, so players never wait for the disk I/O of others.
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public class SessionStore {
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+    private final long memoryBudget;
+    private final SaveCatalog catalog;
+    private final boolean journaledSaves;
+    private final LinkedHashMap<String, Active> active;    // in order of use, least recently used first
+    private final Map<String, Idle> passivated;
+    private final Set<String> reserved;     // ids of sessions being opened by their player, not added yet
+    private long memoryUsed;
+    private long passivatingBytes;  // part of memoryUsed held by sessions being written out
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructor
+     * @param memoryBudget  estimated bytes the active sessions may use
+     * @param catalog   catalog the saves are listed in, null if there is none
+     * @param journaledSaves    true to append moves to the save's journal, false to rewrite the save every time
+     */
+    public SessionStore(long memoryBudget, SaveCatalog catalog, boolean journaledSaves) {
+        this.memoryBudget = memoryBudget;
+        this.catalog = catalog;
+        this.journaledSaves = journaledSaves;
+        this.active = new LinkedHashMap<>(16, 0.75f, true);
+        this.passivated = new HashMap<>();
+        this.reserved = new HashSet<>();
+    }
+
+    /**
+     * Reserves the id of a session before opening it, so that only one caller opens the same save at a time
+     * @param id    id of the session (the name of its save)
+     * @return  true if the id was free and is now reserved for the caller, to be used up by add or cancel
+     */
+    public synchronized boolean reserve(String id) {
+        if(contains(id)) {
+            return false;
+        }
+        reserved.add(id);
+        return true;
+    }
+
+    /**
+     * Gives up a reservation made with reserve, e.g. when the save couldn't be opened
+     * @param id    id of the session
+     */
+    public synchronized void cancel(String id) {
+        reserved.remove(id);
+    }
+
+    /**
+     * Adds a session, in use by the caller until released. A reservation of its id is used up.
+     * @param session   session to add
+     * @return  id of the session (the name of its save), or null if a session of the same save is in the store
+     */
+    public String add(GameSession session) {
+        String id = session.getSaveName();
+        synchronized(this) {
+            if(!reserved.remove(id) && contains(id)) {
+                return null;
+            }
+            Active entry = new Active(session);
+            entry.users = 1;
+            active.put(id, entry);
+            memoryUsed += entry.bytes;
+        }
+        evict();
+        return id;
+    }
+
+    /**
+     * Checks if a session is in the store, active, passivated or reserved
+     * @param id    id of the session
+     * @return  true if the session was reserved or added and not removed yet
+     */
+    public synchronized boolean contains(String id) {
+        return active.containsKey(id) || passivated.containsKey(id) || reserved.contains(id);
+    }
+
+    /**
+     * Returns a session for use by the caller, opening it again if it was passivated.
+     * It can't be passivated until it's released. The session is opened outside the store's lock, so other
+     * sessions can be used meanwhile; callers acquiring the same session wait for it.
+     * @param id    id of the session
+     * @return  session, or null if there is no such session in the store
+     */
+    public GameSession acquire(String id) throws IOException {
+        Idle idle;
+        synchronized(this) {
+            while(true) {
+                Active entry = active.get(id);
+                idle = passivated.get(id);
+                if(entry != null && !entry.passivating) {
+                    hits++;
+                    entry.users++;
+                    return entry.session;
+                }
+                if(entry == null && idle == null) {
+                    return null;
+                }
+                if(entry == null && !idle.loading) {
+                    break;
+                }
+                // being passivated or opened by another caller
+                waitForChange();
+            }
+            misses++;
+            idle.loading = true;
+        }
+        GameSession session = null;
+        try {
+            session = GameSession.open(idle.save, idle.level, idle.created, idle.progress, catalog, journaledSaves);
+        }
+        finally {
+            synchronized(this) {
+                idle.loading = false;
+                // the session may have been removed while it was opened
+                if(session != null && passivated.get(id) == idle) {
+                    passivated.remove(id);
+                    Active entry = new Active(session);
+                    entry.users = 1;
+                    active.put(id, entry);
+                    memoryUsed += entry.bytes;
+                }
+                else {
+                    session = null;
+                }
+                notifyAll();
+            }
+        }
+        // the session is in use, so it can't be passivated to the same file again before this
+        if(session != null && idle.progress != null) {
+            Files.deleteIfExists(idle.progress);
+        }
+        evict();
+        return session;
+    }
+
+    /**
+     * Lets a session be passivated again after use, passivating idle sessions if the store went over its budget
+     * @param id    id of the session
+     */
+    public void release(String id) {
+        synchronized(this) {
+            Active entry = active.get(id);
+            if(entry == null) {
+                return;
+            }
+            entry.users--;
+            // the moves made while the session was in use change its size
+            long bytes = entry.session.estimateBytes();
+            memoryUsed += bytes - entry.bytes;
+            entry.bytes = bytes;
+        }
+        evict();
+    }
+
+    /**
+     * Removes a session without saving it, dropping any progress it was passivated with
+     * @param id    id of the session
+     */
+    public void remove(String id) throws IOException {
+        Idle idle;
+        synchronized(this) {
+            Active entry = active.remove(id);
+            if(entry != null) {
+                memoryUsed -= entry.bytes;
+                if(entry.passivating) {
+                    passivatingBytes -= entry.bytes;
+                }
+            }
+            idle = passivated.remove(id);
+            notifyAll();
+        }
+        if(idle != null && idle.progress != null) {
+            Files.deleteIfExists(idle.progress);
+        }
+    }
+
+    /**
+     * Passivates the least recently used sessions not in use until the active ones fit in the budget.
+     * Sessions are picked and swapped for their passivated form under the store's lock, but written out
+     * without it; a session being written can't be acquired until it's done.
+     */
+    private void evict() {
+        while(true) {
+            String id = null;
+            Active victim = null;
+            synchronized(this) {
+                // sessions already being written will free their memory soon
+                if(memoryUsed - passivatingBytes <= memoryBudget) {
+                    return;
+                }
+                for(Map.Entry<String, Active> next : active.entrySet()) {
+                    Active entry = next.getValue();
+                    if(entry.users == 0 && !entry.passivating) {
+                        id = next.getKey();
+                        victim = entry;
+                        break;
+                    }
+                }
+                if(victim == null) {
+                    return;
+                }
+                victim.passivating = true;
+                passivatingBytes += victim.bytes;
+            }
+            Idle idle = null;
+            try {
+                idle = passivate(victim.session);
+            }
+            catch (IOException ex) {
+                // keep the session in memory rather than lose the player's progress
+            }
+            boolean removed;
+            synchronized(this) {
+                removed = active.get(id) != victim;
+                if(!removed) {
+                    victim.passivating = false;
+                    passivatingBytes -= victim.bytes;
+                    if(idle != null) {
+                        active.remove(id);
+                        memoryUsed -= victim.bytes;
+                        passivated.put(id, idle);
+                        evictions++;
+                    }
+                }
+                notifyAll();
+            }
+            if(removed && idle != null && idle.progress != null) {
+                // removed while it was written - drop the progress as remove() would have
+                try {
+                    Files.deleteIfExists(idle.progress);
+                }
+                catch (IOException ex) {
+                    // a stale .idle file is ignored by the catalog and the verifier
+                }
+            }
+            if(idle == null) {
+                // try again on the next release rather than pick the same session over and over
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits, holding the store's lock, until another caller finishes opening or passivating a session
+     */
+    private void waitForChange() throws IOException {
+        try {
+            wait();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a session");
+        }
+    }
+
+    /**
+     * Writes the progress of a session that wasn't saved yet next to its save
+     * @param session   session to passivate
+     * @return  what is needed to open the session again
+     */
+    private static Idle passivate(GameSession session) throws IOException {
+        Path progress = null;
+        if(!session.isSaveUpToDate()) {
+            progress = session.getSavePath().resolveSibling(session.getSaveName() + ".idle");
+            SaveCodec.write(progress, session.toSaveData());
+        }
+        return new Idle(session.getSavePath(), session.getDifficultyLevel(), session.getSaveCreated(), progress);
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public synchronized long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    public synchronized int getActiveCount() {
+        return active.size();
+    }
+
+    public synchronized int getPassivatedCount() {
+        return passivated.size();
+    }
+
+    /**
+     * Returns how many times an acquired session was already active
+     * @return  number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns how many times an acquired session had to be opened again
+     * @return  number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns how many sessions were passivated to stay within the budget
+     * @return  number of evictions
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Session held in memory
+     */
+    private static class Active {
+        final GameSession session;
+        long bytes; // estimated size when last released
+        int users;  // callers that acquired the session and haven't released it yet
+        boolean passivating;    // being written out by evict()
+
+        Active(GameSession session) {
+            this.session = session;
+            this.bytes = session.estimateBytes();
+        }
+    }
+
+    /**
+     * Passivated session - where to open it from
+     */
+    private static class Idle {
+        final Path save;
+        final String level;
+        final long created;
+        final Path progress;    // progress not saved yet, null if the save is up to date
+        boolean loading;    // being opened again by acquire()
+
+        Idle(Path save, String level, long created, Path progress) {
+            this.save = save;
+            this.level = level;
+            this.created = created;
+            this.progress = progress;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.napier.sudoku;
+
+/**
+ * Interface for engines that can solve a sudoku board and count its solutions
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+interface Solver {
+    /**
+     * Fills in all empty cells of the grid with the first solution found
+     * @param grid  board to solve (0 for empty), modified in place
+     * @return  true if a solution was found, otherwise the grid is left unchanged
+     */
+    boolean solve(int[][] grid);
+
+    /**
+     * Counts the solutions of the grid, stopping as soon as the limit is reached
+     * @param grid  board to check (0 for empty), left unchanged
+     * @param limit maximum number of solutions to look for
+     * @return  number of solutions found, at most limit
+     */
+    int countSolutions(int[][] grid, int limit);
+}
@@ -0,0 +1,25 @@
+package com.napier.sudoku;
+
+/**
+ * Solving engines a board can use for solving, completing and counting solutions
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public enum SolverEngine {
+    BACKTRACKING,
+    DANCING_LINKS,
+    PARALLEL;   // backtracking split over the common fork-join pool
+
+    /**
+     * Creates a new instance of the engine
+     * @param boxSize   size of a box of the boards to solve (3 for 9x9)
+     * @return  solver for this engine
+     */
+    Solver create(int boxSize) {
+        return switch (this) {
+            case BACKTRACKING -> new BacktrackingSolver(boxSize);
+            case DANCING_LINKS -> new DancingLinks(boxSize);
+            case PARALLEL -> new ParallelSolver(boxSize);
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.napier.sudoku;
+
+/**
+ * Solving techniques used by the logical solver, from the simplest to the hardest
+ * @author 40495101
+ * Last modified: 17/10/2026
+ */
+public enum Technique {
+    NAKED_SINGLE("naked single", 1),
+    HIDDEN_SINGLE("hidden single", 2),
+    POINTING("pointing", 3),
+    CLAIMING("claiming", 3),
+    NAKED_PAIR("naked pair", 4),
+    HIDDEN_PAIR("hidden pair", 4),
+    NAKED_TRIPLE("naked triple", 5),
+    HIDDEN_TRIPLE("hidden triple", 5),
+    X_WING("X-Wing", 6),
+    SWORDFISH("Swordfish", 7);
+
+    private final String name;
+    private final int weight;
+
+    /**
+     * Constructor
+     * @param name  name shown to the player
+     * @param weight    how hard the technique is to spot, used when grading puzzles
+     */
+    Technique(String name, int weight) {
+        this.name = name;
+        this.weight = weight;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+}